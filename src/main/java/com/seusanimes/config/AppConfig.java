@@ -1,14 +1,47 @@
 package com.seusanimes.config; // Certifique-se de que o pacote está correto
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+
 @Configuration // Indica que esta classe contém definições de beans
 public class AppConfig {
 
+    /**
+     * Cliente HTTP dedicado à API Jikan.
+     *
+     * O HttpClient do JDK reaproveita conexões (keep-alive) e negocia HTTP/2 quando o servidor suporta.
+     * O interceptor limita as chamadas simultâneas; quem não consegue conexão em pool-acquire-timeout
+     * falha com ResourceAccessException. O read-timeout vale para a troca inteira (cabeçalhos e corpo),
+     * então o prazo total de uma chamada é pool-acquire-timeout + read-timeout.
+     */
     @Bean // Indica que o método retorna um bean gerenciado pelo Spring
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate jikanRestTemplate(RestTemplateBuilder builder,
+                                          MeterRegistry meterRegistry,
+                                          @Value("${app.external.api.base-url:https://api.jikan.moe/v4}") String baseUrl,
+                                          @Value("${app.external.api.connect-timeout:3s}") Duration connectTimeout,
+                                          @Value("${app.external.api.read-timeout:10s}") Duration readTimeout,
+                                          @Value("${app.external.api.max-connections:4}") int maxConexoes,
+                                          @Value("${app.external.api.pool-acquire-timeout:5s}") Duration esperaConexao) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
+
+        return builder
+                .rootUri(baseUrl)
+                .requestFactory(() -> requestFactory)
+                .additionalInterceptors(new JikanHttpInterceptor(maxConexoes, esperaConexao, meterRegistry))
+                .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,79 @@
+package com.seusanimes.config;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+/**
+ * Codificações aceitas nas respostas da API. JSON é o padrão; CBOR e Smile são binárias, com o mesmo
+ * modelo de dados (mesmos campos e nomes), e saem pelos conversores Jackson de FormatosConfig.
+ *
+ * Usado onde a resposta é montada fora dos conversores (páginas pré-serializadas) ou onde o ETag
+ * precisa distinguir as representações.
+ */
+public enum FormatoResposta {
+
+    JSON(MediaType.APPLICATION_JSON, ""),
+    CBOR(MediaType.APPLICATION_CBOR, "-cbor"),
+    SMILE(new MediaType("application", "x-jackson-smile"), "-smile");
+
+    private final MediaType mediaType;
+    private final String sufixoEtag;
+
+    FormatoResposta(MediaType mediaType, String sufixoEtag) {
+        this.mediaType = mediaType;
+        this.sufixoEtag = sufixoEtag;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    // Cada representação tem o seu ETag forte; JSON mantém os ETags que já existiam
+    public String getSufixoEtag() {
+        return sufixoEtag;
+    }
+
+    /**
+     * Escolhe o formato pelo cabeçalho Accept: maior qualidade (q) vence, e no empate (ou sem Accept) fica JSON.
+     * A qualidade de cada formato vem da faixa mais específica que o inclui ("application/cbor" vale mais que um curinga).
+     */
+    public static FormatoResposta negociar(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> aceitos;
+        try {
+            aceitos = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        FormatoResposta escolhido = JSON;
+        double melhorQualidade = 0;
+        for (FormatoResposta formato : values()) {
+            double qualidade = qualidade(formato.mediaType, aceitos);
+            if (qualidade > melhorQualidade) {
+                melhorQualidade = qualidade;
+                escolhido = formato;
+            }
+        }
+        return escolhido;
+    }
+
+    private static double qualidade(MediaType mediaType, List<MediaType> aceitos) {
+        int melhorEspecificidade = -1;
+        double qualidade = 0;
+        for (MediaType aceito : aceitos) {
+            if (!aceito.includes(mediaType)) {
+                continue;
+            }
+            int especificidade = aceito.isWildcardType() ? 0 : aceito.isWildcardSubtype() ? 1 : 2;
+            if (especificidade > melhorEspecificidade) {
+                melhorEspecificidade = especificidade;
+                qualidade = aceito.getQualityValue();
+            }
+        }
+        return qualidade;
+    }
+}
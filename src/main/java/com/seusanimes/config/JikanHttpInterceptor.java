@@ -0,0 +1,151 @@
+package com.seusanimes.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limita as chamadas simultâneas à API externa (tamanho do pool de conexões)
+ * e registra latência por chamada e saturação do pool.
+ *
+ * Métricas: jikan.http.client.latency, jikan.http.client.in_flight,
+ * jikan.http.client.pool.waiting, jikan.http.client.pool.max e jikan.http.client.pool.rejected.
+ */
+public class JikanHttpInterceptor implements ClientHttpRequestInterceptor {
+
+    private final Semaphore conexoes;
+    private final Duration esperaMaxima;
+    private final AtomicInteger emAndamento = new AtomicInteger();
+    private final AtomicInteger aguardando = new AtomicInteger();
+
+    private final MeterRegistry registry;
+    private final Counter rejeitadas;
+
+    public JikanHttpInterceptor(int maxConexoes, Duration esperaMaxima, MeterRegistry registry) {
+        this.conexoes = new Semaphore(maxConexoes, true);
+        this.esperaMaxima = esperaMaxima;
+        this.registry = registry;
+        Gauge.builder("jikan.http.client.in_flight", emAndamento, AtomicInteger::get)
+                .description("Chamadas à API externa em andamento")
+                .register(registry);
+        Gauge.builder("jikan.http.client.pool.waiting", aguardando, AtomicInteger::get)
+                .description("Chamadas aguardando uma conexão livre")
+                .register(registry);
+        Gauge.builder("jikan.http.client.pool.max", () -> maxConexoes)
+                .description("Máximo de conexões simultâneas com a API externa")
+                .register(registry);
+        this.rejeitadas = Counter.builder("jikan.http.client.pool.rejected")
+                .description("Chamadas descartadas por não conseguirem conexão dentro do prazo")
+                .register(registry);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        adquirirConexao(request);
+        emAndamento.incrementAndGet();
+        long inicio = System.nanoTime();
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            // A conexão só é devolvida quando o corpo termina de ser lido (RestTemplate fecha a resposta)
+            return new RespostaMedida(response, request, inicio);
+        } catch (IOException | RuntimeException e) {
+            finalizar(request, "IO_ERROR", inicio);
+            throw e;
+        }
+    }
+
+    private void finalizar(HttpRequest request, String status, long inicio) {
+        Timer.builder("jikan.http.client.latency")
+                .description("Latência das chamadas à API externa, até o fim da leitura do corpo")
+                .tag("method", request.getMethod().name())
+                .tag("status", status)
+                .register(registry)
+                .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        emAndamento.decrementAndGet();
+        conexoes.release();
+    }
+
+    private class RespostaMedida implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final HttpRequest request;
+        private final long inicio;
+        private boolean fechada;
+
+        RespostaMedida(ClientHttpResponse delegate, HttpRequest request, long inicio) {
+            this.delegate = delegate;
+            this.request = request;
+            this.inicio = inicio;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            if (fechada) {
+                return;
+            }
+            fechada = true;
+            String status;
+            try {
+                status = String.valueOf(delegate.getStatusCode().value());
+            } catch (IOException e) {
+                status = "IO_ERROR";
+            }
+            try {
+                delegate.close();
+            } finally {
+                finalizar(request, status, inicio);
+            }
+        }
+    }
+
+    private void adquirirConexao(HttpRequest request) throws IOException {
+        aguardando.incrementAndGet();
+        try {
+            if (!conexoes.tryAcquire(esperaMaxima.toNanos(), TimeUnit.NANOSECONDS)) {
+                rejeitadas.increment();
+                throw new ResourceAccessException("Pool de conexões da API externa saturado: nenhuma conexão livre em "
+                        + esperaMaxima.toMillis() + "ms para " + request.getURI());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("Interrompido aguardando conexão com a API externa.");
+        } finally {
+            aguardando.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.seusanimes.controller;
+
+import com.seusanimes.service.AnimeExportService;
+import com.seusanimes.service.CatalogoRespostaCache;
+import com.seusanimes.service.JikanBuscaCache;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+// Operações administrativas; todo /api/admin/** exige ROLE_ADMIN (ver SecurityConfig)
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminController.class);
+
+    private final JikanBuscaCache jikanBuscaCache;
+    private final CatalogoRespostaCache catalogoRespostaCache;
+    private final AnimeExportService animeExportService;
+
+    public AdminController(JikanBuscaCache jikanBuscaCache, CatalogoRespostaCache catalogoRespostaCache,
+                           AnimeExportService animeExportService) {
+        this.jikanBuscaCache = jikanBuscaCache;
+        this.catalogoRespostaCache = catalogoRespostaCache;
+        this.animeExportService = animeExportService;
+    }
+
+    // Esvazia o cache de buscas por título na Jikan (inclusive os "não encontrados")
+    @DeleteMapping("/cache/busca-externa")
+    public ResponseEntity<Map<String, Long>> limparCacheBuscaExterna() {
+        long removidas = jikanBuscaCache.limpar();
+        return ResponseEntity.ok(Map.of("entradasRemovidas", removidas));
+    }
+
+    // Esvazia as páginas do catálogo pré-serializadas (após correções direto no banco, por exemplo)
+    @DeleteMapping("/cache/catalogo")
+    public ResponseEntity<Map<String, Long>> limparCacheCatalogo() {
+        long removidas = catalogoRespostaCache.limpar();
+        return ResponseEntity.ok(Map.of("entradasRemovidas", removidas));
+    }
+
+    /**
+     * Exporta o catálogo inteiro em NDJSON, em ordem de id, escrevendo direto no corpo da resposta
+     * (na thread da requisição, sem limite de tempo de requisição assíncrona).
+     * Para retomar após uma falha, repita com ?depoisDe= igual ao id da última linha recebida.
+     * Com ?gzip=true o corpo vai comprimido (Content-Encoding: gzip).
+     */
+    @GetMapping("/exportacao/animes")
+    public void exportarAnimes(@RequestParam(defaultValue = "0") long depoisDe,
+                               @RequestParam(defaultValue = "false") boolean gzip,
+                               HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"animes-depois-de-" + depoisDe + (gzip ? ".ndjson.gz\"" : ".ndjson\""));
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        OutputStream corpo = response.getOutputStream();
+        // syncFlush: cada lote escrito chega ao cliente, e não fica preso no buffer do compressor
+        try (OutputStream saida = gzip ? new GZIPOutputStream(corpo, 64 * 1024, true) : corpo) {
+            long escritos = animeExportService.exportarNdjson(depoisDe, saida);
+            logger.info("AdminController: exportação concluída, {} animes depois do id {}.", escritos, depoisDe);
+        }
+    }
+}
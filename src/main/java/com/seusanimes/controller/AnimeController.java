@@ -1,19 +1,46 @@
 package com.seusanimes.controller;
 
+import com.seusanimes.config.FormatoResposta;
+import com.seusanimes.dto.AnimeSugestao;
+import com.seusanimes.dto.LoteAnimesResponse;
+import com.seusanimes.dto.CatalogoFacetadoResponse;
+import com.seusanimes.dto.CursorPage;
+import com.seusanimes.dto.ImportJobResponse;
+import com.seusanimes.dto.VersaoConteudo;
 import com.seusanimes.model.Anime;
+import com.seusanimes.model.Temporada;
+import com.seusanimes.repository.ProjecaoRepository;
 import com.seusanimes.service.AnimeService;
 import com.seusanimes.service.AnimeExternalService;
+import com.seusanimes.service.AnimeImportService;
+import com.seusanimes.service.AutocompleteIndex;
+import com.seusanimes.service.CamposSelecionados;
+import com.seusanimes.service.CatalogoRespostaCache;
+import com.seusanimes.service.CatalogoRespostaCache.RespostaSerializada;
+import com.seusanimes.service.ImportJob;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/animes")
@@ -21,49 +48,243 @@ public class AnimeController {
 
     private final AnimeService animeService;
     private final AnimeExternalService animeExternalService;
+    private final AnimeImportService animeImportService;
+    private final AutocompleteIndex autocompleteIndex;
+    private final CatalogoRespostaCache catalogoRespostaCache; // Primeiras páginas já serializadas (JSON e gzip)
 
     @Autowired
-    public AnimeController(AnimeService animeService, AnimeExternalService animeExternalService) {
+    public AnimeController(AnimeService animeService, AnimeExternalService animeExternalService,
+                           AnimeImportService animeImportService, AutocompleteIndex autocompleteIndex,
+                           CatalogoRespostaCache catalogoRespostaCache) {
         this.animeService = animeService;
         this.animeExternalService = animeExternalService;
+        this.animeImportService = animeImportService;
+        this.autocompleteIndex = autocompleteIndex;
+        this.catalogoRespostaCache = catalogoRespostaCache;
     }
 
     // 1. BUSCA GERAL (PAGINADA) - Corrigido para chamar .findAll(pageable)
+    // ?fields=id,titulo,... (ou ?fields=resumo) devolve só essas colunas, lidas sem carregar entidades
     @GetMapping
-    public ResponseEntity<Page<Anime>> getAllAnimes(
-            @PageableDefault(size = 10, sort = "titulo") Pageable pageable) {
+    public ResponseEntity<?> getAllAnimes(
+            @PageableDefault(size = 10, sort = "titulo") Pageable pageable,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
 
-        Page<Anime> animesPage = animeService.findAll(pageable); // 👈 Corrigido: Usando findAll
-        return ResponseEntity.ok(animesPage);
+        List<String> campos = camposDoAnime(fields);
+        if (!campos.isEmpty()) {
+            return paginaDoCatalogo("animes?" + chaveDaPagina(pageable) + "&fields=" + String.join(",", campos),
+                    pageable, accept, acceptEncoding, () -> animeService.findAll(campos, pageable), linha -> (Long) linha.get("id"),
+                    List.of(CatalogoRespostaCache.TAG_CATALOGO));
+        }
+        return paginaDoCatalogo("animes?" + chaveDaPagina(pageable), pageable, accept, acceptEncoding,
+                () -> animeService.findAll(pageable), // 👈 Corrigido: Usando findAll
+                Anime::getId, List.of(CatalogoRespostaCache.TAG_CATALOGO));
+    }
+
+    private static List<String> camposDoAnime(String fields) {
+        try {
+            return CamposSelecionados.resolver(fields, ProjecaoRepository.CAMPOS_ANIME, ProjecaoRepository.RESUMO_ANIME);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    // 1.1 CATÁLOGO POR CURSOR: sem count(*) nem OFFSET. Envie de volta o proximoCursor recebido.
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<Anime>> getAnimesPorCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "titulo") String ordem) {
+        try {
+            return ResponseEntity.ok(animeService.listarPorCursor(cursor, Math.min(Math.max(size, 1), 100), ordem));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
     }
 
     // ---------------------------------------------------------------------
     // Endpoints de Busca por Filtro
     // ---------------------------------------------------------------------
 
-    // 2. BUSCA POR TÍTULO
+    // 2. BUSCA POR TÍTULO (ordenada por relevância; ?page=&size= paginam)
+    // O corpo continua sendo a lista de animes; o total de resultados vai no cabeçalho X-Total-Count.
     @GetMapping("/search")
-    public ResponseEntity<List<Anime>> searchAnimes(@RequestParam String q) {
-        List<Anime> animes = animeService.findByTituloContainingIgnoreCase(q);
-        return animes.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(animes);
+    public ResponseEntity<List<?>> searchAnimes(@RequestParam String q,
+                                                @RequestParam(required = false) String fields,
+                                                @PageableDefault(size = 20) Pageable pageable) {
+        if (q.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<String> campos = camposDoAnime(fields);
+        Page<?> resultado = campos.isEmpty()
+                ? animeService.buscarPorTitulo(q, pageable)
+                : animeService.buscarPorTitulo(q, campos, pageable);
+        if (resultado.isEmpty()) {
+            return ResponseEntity.noContent().header("X-Total-Count", String.valueOf(resultado.getTotalElements())).build();
+        }
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(resultado.getTotalElements()))
+                .body(resultado.getContent());
+    }
+
+    // 2.1 AUTOCOMPLETE: sugestões por prefixo, servidas do índice em memória (sem consulta ao banco)
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<AnimeSugestao>> autocomplete(@RequestParam String q,
+                                                            @RequestParam(defaultValue = "10") int limite) {
+        return ResponseEntity.ok(autocompleteIndex.sugerir(q, Math.min(Math.max(limite, 1), 50)));
     }
 
     // 3. BUSCA POR GÊNERO/CATEGORIA
     @GetMapping("/genre/{genre}")
-    public ResponseEntity<List<Anime>> getAnimesByGenre(@PathVariable String genre) {
-        List<Anime> animes = animeService.findAnimesByGenre(genre);
+    public ResponseEntity<List<?>> getAnimesByGenre(@PathVariable String genre,
+                                                    @RequestParam(required = false) String fields) {
+        List<String> campos = camposDoAnime(fields);
+        List<?> animes = campos.isEmpty()
+                ? animeService.findAnimesByGenre(genre)
+                : animeService.findAnimesByGenre(genre, campos);
         return animes.isEmpty() ? ResponseEntity.noContent().build() : ResponseEntity.ok(animes);
     }
 
-    // 4. BUSCA POR ANO DE LANÇAMENTO (PAGINADA E CORRIGIDA)
+    // 3.1 FILTRO POR GÊNEROS: ?incluir=Action,Fantasy&qualquer=...&excluir=Ecchi[&anoInicio=&anoFim=]
+    // "incluir" exige todos, "qualquer" pelo menos um, "excluir" nenhum. Resultado paginado em ordem de id.
+    @GetMapping("/generos")
+    public ResponseEntity<?> getAnimesPorGeneros(
+            @RequestParam(defaultValue = "") List<String> incluir,
+            @RequestParam(defaultValue = "") List<String> qualquer,
+            @RequestParam(defaultValue = "") List<String> excluir,
+            @RequestParam(required = false) Integer anoInicio,
+            @RequestParam(required = false) Integer anoFim,
+            @PageableDefault(size = 20) Pageable pageable,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        List<String> incluidos = semVazios(incluir);
+        List<String> quaisquer = semVazios(qualquer);
+        List<String> excluidos = semVazios(excluir);
+        String chave = "generos?incluir=" + normalizados(incluidos) + "&qualquer=" + normalizados(quaisquer)
+                + "&excluir=" + normalizados(excluidos) + "&anoInicio=" + anoInicio + "&anoFim=" + anoFim
+                + "&page=" + pageable.getPageNumber() + "&size=" + pageable.getPageSize();
+        // Um anime só entra no resultado se tiver algum dos gêneros pedidos; sem gênero pedido, qualquer escrita afeta
+        List<String> tags = new ArrayList<>();
+        incluidos.forEach(nome -> tags.add(CatalogoRespostaCache.tagGenero(nome)));
+        quaisquer.forEach(nome -> tags.add(CatalogoRespostaCache.tagGenero(nome)));
+        if (tags.isEmpty()) {
+            tags.add(CatalogoRespostaCache.TAG_CATALOGO);
+        }
+        return paginaDoCatalogo(chave, pageable, accept, acceptEncoding,
+                () -> animeService.buscarPorGeneros(incluidos, quaisquer, excluidos, anoInicio, anoFim, pageable),
+                Anime::getId, tags);
+    }
+
+    // 3.2 BUSCA FACETADA: os filtros de /generos mais ?status=, com as contagens por gênero, ano e status
+    @GetMapping("/facetas")
+    public ResponseEntity<CatalogoFacetadoResponse> getCatalogoFacetado(
+            @RequestParam(defaultValue = "") List<String> incluir,
+            @RequestParam(defaultValue = "") List<String> qualquer,
+            @RequestParam(defaultValue = "") List<String> excluir,
+            @RequestParam(required = false) Integer anoInicio,
+            @RequestParam(required = false) Integer anoFim,
+            @RequestParam(required = false) String status,
+            @PageableDefault(size = 20) Pageable pageable) {
+        return ResponseEntity.ok(animeService.buscarFacetado(semVazios(incluir), semVazios(qualquer), semVazios(excluir),
+                anoInicio, anoFim, status, pageable));
+    }
+
+    private static List<String> semVazios(List<String> valores) {
+        return valores.stream().map(String::trim).filter(valor -> !valor.isEmpty()).toList();
+    }
+
+    // Ordem e maiúsculas não mudam o resultado dos filtros de gênero: não devem gerar chaves diferentes no cache
+    private static String normalizados(List<String> valores) {
+        return valores.stream().map(valor -> valor.toLowerCase(Locale.ROOT)).distinct().sorted()
+                .collect(Collectors.joining(","));
+    }
+
+    private static String chaveDaPagina(Pageable pageable) {
+        return "page=" + pageable.getPageNumber() + "&size=" + pageable.getPageSize() + "&sort=" + pageable.getSort();
+    }
+
+    /**
+     * Primeiras páginas saem do CatalogoRespostaCache já serializadas no formato pedido em Accept
+     * (e em gzip, se o cliente aceitar); as demais seguem o caminho normal, pelos conversores.
+     * O corpo é o mesmo nos dois casos.
+     *
+     * @param idDoAnime Id do anime de cada item da página (nulo se a projeção não trouxer o id).
+     * @param tags Tags de invalidação da consulta; os ids dos animes da página são acrescentados.
+     */
+    private <T> ResponseEntity<?> paginaDoCatalogo(String chave, Pageable pageable, String accept, String acceptEncoding,
+                                                   Supplier<Page<T>> consulta, Function<T, Long> idDoAnime,
+                                                   Collection<String> tags) {
+        if (!catalogoRespostaCache.cacheavel(pageable)) {
+            return ResponseEntity.ok(consulta.get());
+        }
+        FormatoResposta formato = FormatoResposta.negociar(accept);
+        RespostaSerializada resposta;
+        try {
+            resposta = catalogoRespostaCache.obter(chave, formato, consulta, pagina -> {
+                List<String> todas = new ArrayList<>(tags);
+                pagina.map(idDoAnime).forEach(id -> {
+                    if (id != null) {
+                        todas.add(CatalogoRespostaCache.tagAnime(id));
+                    }
+                });
+                return todas;
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Montagem da página interrompida.", e);
+        }
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                .contentType(formato.getMediaType())
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (aceitaGzip(acceptEncoding)) {
+            return ok.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(resposta.gzip());
+        }
+        return ok.body(resposta.corpo());
+    }
+
+    // "gzip" ou "*" no Accept-Encoding, desde que não venha com q=0
+    private static boolean aceitaGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String item : acceptEncoding.split(",")) {
+            String[] partes = item.trim().split(";");
+            String codificacao = partes[0].trim();
+            if (codificacao.equalsIgnoreCase("gzip") || codificacao.equals("*")) {
+                return partes.length < 2 || !partes[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    // 4. BUSCA POR ANO DE LANÇAMENTO (PAGINADA), com ?temporada=INVERNO|PRIMAVERA|VERAO|OUTONO opcional
     @GetMapping("/ano/{ano}") // Ajuste para PathVariable para consistência
-    public ResponseEntity<Page<Anime>> getAnimesByAnoLancamento(
+    public ResponseEntity<?> getAnimesByAnoLancamento(
             @PathVariable Integer ano,
-            @PageableDefault(size = 10, sort = "id") Pageable pageable) {
+            @RequestParam(required = false) Temporada temporada,
+            @PageableDefault(size = 10, sort = "id") Pageable pageable,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        return paginaDoCatalogo("ano/" + ano + "?temporada=" + temporada + "&" + chaveDaPagina(pageable), pageable,
+                accept, acceptEncoding,
+                () -> animeService.findByAnoLancamento(ano, temporada, pageable),
+                Anime::getId, List.of(CatalogoRespostaCache.tagAno(ano)));
+    }
 
-        // Linha 84 Corrigida: Passando o Pageable
-        Page<Anime> animesPage = animeService.findByAnoLancamento(ano, pageable);
-        return ResponseEntity.ok(animesPage);
+    // 4.1 BUSCA POR INTERVALO DE ANOS (?inicio=2018&fim=2020, inclusivo), combinável com temporada e sort
+    @GetMapping("/anos")
+    public ResponseEntity<Page<Anime>> getAnimesPorIntervaloDeAnos(
+            @RequestParam Integer inicio,
+            @RequestParam Integer fim,
+            @RequestParam(required = false) Temporada temporada,
+            @PageableDefault(size = 10, sort = {"ano", "id"}) Pageable pageable) {
+        if (inicio > fim) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(animeService.findByIntervaloDeAnos(inicio, fim, temporada, pageable));
     }
 
     // ---------------------------------------------------------------------
@@ -72,9 +293,19 @@ public class AnimeController {
 
     // 5. BUSCA POR ID - Corrigido para chamar .findById(id)
     @GetMapping("/{id}")
-    public ResponseEntity<Anime> getAnimeById(@PathVariable Long id) {
+    public ResponseEntity<Anime> getAnimeById(@PathVariable Long id,
+                                              @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                              WebRequest webRequest) {
+        // If-None-Match/If-Modified-Since respondidos com 304 a partir de uma consulta agregada,
+        // antes de carregar ou serializar o anime. A versão é lida antes do anime: numa corrida,
+        // o cliente recebe o corpo novo com o ETag antigo e só baixa de novo na próxima vez.
+        VersaoConteudo versao = animeService.versao(id);
+        String etag = versao.etag("anime-" + id + FormatoResposta.negociar(accept).getSufixoEtag());
+        if (versao.existe() && webRequest.checkNotModified(etag, versao.ultimaAlteracaoEmMillis())) {
+            return null;
+        }
         Optional<Anime> anime = animeService.findById(id); // 👈 Corrigido: Usando findById
-        return anime.map(ResponseEntity::ok)
+        return anime.map(a -> ResponseEntity.ok().cacheControl(CacheControl.noCache()).varyBy(HttpHeaders.ACCEPT).body(a))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -92,20 +323,40 @@ public class AnimeController {
         }
     }
 
+    // Importação assíncrona: responde 202 com o id do job; o progresso fica em /importacoes/{jobId}.
+    // Aceita um único ano (?ano=2020) ou um intervalo (?anoInicio=2018&anoFim=2020).
     @PostMapping("/buscar-e-salvar-por-ano")
-    public ResponseEntity<List<Anime>> buscarESalvarAnimesPorAno(@RequestParam Integer ano) {
+    public ResponseEntity<ImportJobResponse> buscarESalvarAnimesPorAno(
+            @RequestParam(required = false) Integer ano,
+            @RequestParam(required = false) Integer anoInicio,
+            @RequestParam(required = false) Integer anoFim) {
+        Integer inicio = anoInicio != null ? anoInicio : ano;
+        Integer fim = anoFim != null ? anoFim : (ano != null ? ano : anoInicio);
+        if (inicio == null || fim == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        ImportJob job;
         try {
-            List<Anime> animesSalvos = animeExternalService.buscarESalvarAnimesPorAno(ano);
-            if (animesSalvos.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(animesSalvos);
-            }
-            return ResponseEntity.status(HttpStatus.CREATED).body(animesSalvos);
-        } catch (ResponseStatusException e) {
-            throw e;
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+            job = animeImportService.iniciarImportacao(inicio, fim);
+        } catch (AnimeImportService.LimiteDeImportacoesException e) {
+            // 429 com o job que está ocupando a vaga: o cliente pode acompanhá-lo e tentar de novo depois
+            ImportJob emAndamento = e.getEmAndamento();
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .location(URI.create("/api/animes/importacoes/" + emAndamento.getId()))
+                    .header(HttpHeaders.RETRY_AFTER, "60")
+                    .body(emAndamento.toResponse());
         }
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/animes/importacoes/" + job.getId()))
+                .body(job.toResponse());
+    }
+
+    @GetMapping("/importacoes/{jobId}")
+    public ResponseEntity<ImportJobResponse> getStatusImportacao(@PathVariable String jobId) {
+        return animeImportService.buscarJob(jobId)
+                .map(job -> ResponseEntity.ok(job.toResponse()))
+                .orElse(ResponseEntity.notFound().build());
     }
 
     // 6. CRIAR NOVO ANIME - Corrigido para chamar .save(anime)
@@ -115,6 +366,16 @@ public class AnimeController {
         return ResponseEntity.status(HttpStatus.CREATED).body(novoAnime);
     }
 
+    // Criação/atualização em lote: itens sem id são criados, itens com id atualizam o anime existente
+    @PostMapping("/lote")
+    public ResponseEntity<LoteAnimesResponse> salvarAnimesEmLote(@RequestBody List<Anime> animes) {
+        try {
+            return ResponseEntity.ok(animeService.salvarEmLote(animes));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
     // 7. ATUALIZAR ANIME
     @PutMapping("/{id}")
     public ResponseEntity<Anime> atualizarAnime(@PathVariable Long id, @RequestBody Anime animeAtualizado) {
@@ -3,14 +3,14 @@ package com.seusanimes.controller;
 import com.seusanimes.model.User;
 import com.seusanimes.service.UserService;
 import com.seusanimes.security.JwtUtil;
-import com.seusanimes.security.CustomUserDetailsService;
+import com.seusanimes.security.UsuarioCadastrado;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import com.seusanimes.dto.JwtResponse;
 import java.util.Optional;
@@ -22,17 +22,14 @@ public class AuthController {
     private final UserService userService;
     private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
-    private final CustomUserDetailsService userDetailsService;
 
     @Autowired
     public AuthController(UserService userService,
                           AuthenticationManager authenticationManager,
-                          JwtUtil jwtUtil,
-                          CustomUserDetailsService userDetailsService) {
+                          JwtUtil jwtUtil) {
         this.userService = userService;
         this.authenticationManager = authenticationManager;
         this.jwtUtil = jwtUtil;
-        this.userDetailsService = userDetailsService;
     }
 
     @PostMapping("/register")
@@ -53,18 +50,20 @@ public class AuthController {
 
     @PostMapping("/login")
     public ResponseEntity<?> createAuthenticationToken(@RequestBody User authenticationRequest) throws Exception {
+        final Authentication authentication;
         try {
-            authenticationManager.authenticate(
+            authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(authenticationRequest.getUsername(), authenticationRequest.getPassword())
             );
         } catch (BadCredentialsException e) {
             return new ResponseEntity<>("Credenciais inválidas.", HttpStatus.UNAUTHORIZED);
         }
 
-        final UserDetails userDetails = userDetailsService
-                .loadUserByUsername(authenticationRequest.getUsername());
+        // O principal autenticado é a cópia do usuário carregada pelo CustomUserDetailsService
+        final UsuarioCadastrado user = (UsuarioCadastrado) authentication.getPrincipal();
 
-        final String jwt = jwtUtil.generateToken(userDetails.getUsername());
+        // id e roles vão no token para que o filtro não precise consultar o banco a cada requisição
+        final String jwt = jwtUtil.generateToken(user.getId(), user.getUsername(), user.getAuthorities());
 
         return ResponseEntity.ok(new JwtResponse(jwt));
     }
@@ -1,8 +1,14 @@
 package com.seusanimes.controller;
 
+import com.seusanimes.config.FormatoResposta;
+import com.seusanimes.dto.VersaoConteudo;
 import com.seusanimes.model.Categoria;
 import com.seusanimes.repository.CategoriaRepository;
+import com.seusanimes.service.CatalogoRespostaCache;
+import com.seusanimes.service.CategoriaRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -12,9 +18,11 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Optional;
@@ -24,15 +32,26 @@ import java.util.Optional;
 public class CategoriaController {
 
     private final CategoriaRepository categoriaRepository;
+    private final CategoriaRegistry categoriaRegistry; // Cópia em memória usada por importações e filtros de gênero
+    private final CatalogoRespostaCache catalogoRespostaCache; // Páginas em cache trazem o nome das categorias
 
-    public CategoriaController(CategoriaRepository categoriaRepository) {
+    public CategoriaController(CategoriaRepository categoriaRepository, CategoriaRegistry categoriaRegistry,
+                               CatalogoRespostaCache catalogoRespostaCache) {
         this.categoriaRepository = categoriaRepository;
+        this.categoriaRegistry = categoriaRegistry;
+        this.catalogoRespostaCache = catalogoRespostaCache;
     }
 
     @GetMapping
-    public ResponseEntity<List<Categoria>> listarCategorias() {
+    public ResponseEntity<List<Categoria>> listarCategorias(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                            WebRequest webRequest) {
+        // Só ETag: a remoção de uma categoria muda a quantidade, mas não a data da última alteração
+        VersaoConteudo versao = categoriaRepository.versao();
+        if (webRequest.checkNotModified(versao.etag("categorias" + FormatoResposta.negociar(accept).getSufixoEtag()))) {
+            return null;
+        }
         List<Categoria> categorias = categoriaRepository.findAll();
-        return ResponseEntity.ok(categorias);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).varyBy(HttpHeaders.ACCEPT).body(categorias);
     }
 
     @GetMapping("/{id}")
@@ -45,6 +64,7 @@ public class CategoriaController {
     @PostMapping
     public ResponseEntity<Categoria> criarCategoria(@RequestBody Categoria categoria) {
         Categoria novaCategoria = categoriaRepository.save(categoria);
+        categoriaRegistry.registrar(novaCategoria);
         return ResponseEntity.status(HttpStatus.CREATED).body(novaCategoria);
     }
 
@@ -53,7 +73,10 @@ public class CategoriaController {
         return categoriaRepository.findById(id)
                 .map(categoria -> {
                     categoria.setNome(categoriaAtualizada.getNome());
-                    return ResponseEntity.ok(categoriaRepository.save(categoria));
+                    Categoria salva = categoriaRepository.save(categoria);
+                    categoriaRegistry.registrar(salva);
+                    catalogoRespostaCache.limpar();
+                    return ResponseEntity.ok(salva);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -62,5 +85,7 @@ public class CategoriaController {
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deletarCategoria(@PathVariable Long id) {
         categoriaRepository.deleteById(id);
+        categoriaRegistry.remover(id);
+        catalogoRespostaCache.limpar();
     }
 }
\ No newline at end of file
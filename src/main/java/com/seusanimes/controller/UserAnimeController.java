@@ -1,26 +1,29 @@
 package com.seusanimes.controller;
 
+import com.seusanimes.config.FormatoResposta;
+import com.seusanimes.dto.CursorPage;
 import com.seusanimes.dto.UserAnimeRequest;
 import com.seusanimes.dto.UserAnimeResponse;
-import com.seusanimes.model.User;
 import com.seusanimes.model.UserAnime;
 import com.seusanimes.model.AnimeStatus;
 import com.seusanimes.model.Categoria;
+import com.seusanimes.repository.ProjecaoRepository;
 
 import com.seusanimes.service.AnimeService;
+import com.seusanimes.service.CamposSelecionados;
 import com.seusanimes.service.UserAnimeService;
-import com.seusanimes.service.UserService;
+import com.seusanimes.security.AuthenticatedUser;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 @RestController
@@ -28,62 +31,18 @@ import java.util.stream.Collectors;
 public class UserAnimeController {
 
     private final UserAnimeService userAnimeService;
-    private final UserService userService;
     private final AnimeService animeService;
 
+    // O usuário autenticado chega em cada endpoint como AuthenticatedUser, resolvido pelo
+    // argument resolver de @AuthenticationPrincipal a partir do principal montado no JwtRequestFilter
+    // (id já presente no token, sem nova consulta ao banco).
     @Autowired
     public UserAnimeController(UserAnimeService userAnimeService,
-                               UserService userService,
                                AnimeService animeService) {
         this.userAnimeService = userAnimeService;
-        this.userService = userService;
         this.animeService = animeService;
     }
 
-    private Long getAuthenticatedUserId() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-
-        if (authentication == null || !authentication.isAuthenticated() || authentication.getPrincipal().equals("anonymousUser")) {
-            System.out.println("UserAnimeController: Usuário não autenticado ou anônimo.");
-            throw new RuntimeException("Usuário não autenticado.");
-        }
-
-        String username;
-        Object principal = authentication.getPrincipal();
-        if (principal instanceof UserDetails) {
-            username = ((UserDetails) principal).getUsername();
-        } else {
-            username = principal.toString();
-        }
-
-        System.out.println("UserAnimeController: Usuário autenticado: " + username);
-
-        Optional<User> userOptional = userService.getUserByUsername(username);
-        if (!userOptional.isPresent()) {
-            System.out.println("UserAnimeController: Usuário '" + username + "' não encontrado no banco de dados após autenticação!");
-            throw new RuntimeException("Usuário autenticado não encontrado no banco de dados!");
-        }
-        Long userId = userOptional.get().getId();
-        System.out.println("UserAnimeController: userId autenticado: " + userId);
-        return userId;
-    }
-
-    private String getAuthenticatedUsername() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-
-        if (authentication == null || !authentication.isAuthenticated() || authentication.getPrincipal().equals("anonymousUser")) {
-            throw new RuntimeException("Usuário não autenticado.");
-        }
-
-        Object principal = authentication.getPrincipal();
-        if (principal instanceof UserDetails) {
-            return ((UserDetails) principal).getUsername();
-        } else {
-            return principal.toString();
-        }
-    }
-
-
     private UserAnimeResponse convertToDto(UserAnime userAnime) {
         UserAnimeResponse dto = new UserAnimeResponse();
         dto.setId(userAnime.getId());
@@ -114,10 +73,11 @@ public class UserAnimeController {
     }
 
     @PostMapping
-    public ResponseEntity<UserAnimeResponse> addAnimeToUserList(@RequestBody UserAnimeRequest request) {
+    public ResponseEntity<UserAnimeResponse> addAnimeToUserList(@AuthenticationPrincipal(errorOnInvalidType = true) AuthenticatedUser usuario,
+                                                                @RequestBody UserAnimeRequest request) {
         System.out.println("UserAnimeController: Acessando addAnimeToUserList (POST).");
         try {
-            Long userId = getAuthenticatedUserId();
+            Long userId = usuario.getId();
 
             if (request.getAnimeId() == null || request.getStatus() == null) {
                 return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
@@ -140,11 +100,12 @@ public class UserAnimeController {
 
     @PutMapping("/{userAnimeId}")
     public ResponseEntity<UserAnimeResponse> updateAnimeInUserList(
+                @AuthenticationPrincipal(errorOnInvalidType = true) AuthenticatedUser usuario,
                 @PathVariable Long userAnimeId,
                 @RequestBody UserAnimeRequest request) {
         System.out.println("UserAnimeController: Acessando updateAnimeInUserList (PUT).");
         try {
-            Long userId = getAuthenticatedUserId();
+            Long userId = usuario.getId();
 
             UserAnime userAnime = userAnimeService.updateDetailsUserAnime(
                     userId, userAnimeId, request.getStatus(), request.getScore(), request.getEpisodesWatched());
@@ -161,9 +122,10 @@ public class UserAnimeController {
     }
 
     @DeleteMapping("/{userAnimeId}")
-    public ResponseEntity<Void> deleteAnimeFromUserList(@PathVariable Long userAnimeId) {
+    public ResponseEntity<Void> deleteAnimeFromUserList(@AuthenticationPrincipal(errorOnInvalidType = true) AuthenticatedUser usuario,
+                                                        @PathVariable Long userAnimeId) {
         System.out.println("UserAnimeController: Acessando deleteAnimeFromUserList (DELETE).");
-        Long userId = getAuthenticatedUserId();
+        Long userId = usuario.getId();
 
         boolean deleted = userAnimeService.deleteUserAnime(userId, userAnimeId);
         
@@ -174,11 +136,33 @@ public class UserAnimeController {
         }
     }
 
+    // ?fields=animeName,status,... (ou ?fields=resumo) devolve só esses campos, lidos sem carregar entidades
     @GetMapping
-    public ResponseEntity<List<UserAnimeResponse>> getUserAnimeList(
-                @RequestParam(required = false) AnimeStatus status) {
+    public ResponseEntity<List<?>> getUserAnimeList(
+                @AuthenticationPrincipal(errorOnInvalidType = true) AuthenticatedUser usuario,
+                @RequestParam(required = false) AnimeStatus status,
+                @RequestParam(required = false) String fields,
+                @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                WebRequest webRequest) {
         System.out.println("UserAnimeController: Acessando getUserAnimeList (GET).");
-        Long userId = getAuthenticatedUserId();
+        Long userId = usuario.getId();
+
+        List<String> campos;
+        try {
+            campos = CamposSelecionados.resolver(fields, ProjecaoRepository.CAMPOS_USER_ANIME, ProjecaoRepository.RESUMO_USER_ANIME);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // Lista inalterada desde o último GET: 304 sem carregar as entradas
+        if (webRequest.checkNotModified(userAnimeService.etagDaLista(userId, FormatoResposta.negociar(accept).getSufixoEtag()))) {
+            return null;
+        }
+
+        if (!campos.isEmpty()) {
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).varyBy(HttpHeaders.ACCEPT)
+                    .body(userAnimeService.getUserAnimeList(userId, status, campos));
+        }
 
         List<UserAnime> userAnimes;
         if (status != null) {
@@ -191,23 +175,44 @@ public class UserAnimeController {
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
 
-        return ResponseEntity.ok(responses);
+        // Sempre revalidar, e nunca em caches compartilhados: a lista é do usuário autenticado
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).varyBy(HttpHeaders.ACCEPT).body(responses);
+    }
+
+    // Lista por cursor: sem carregar a lista inteira. Envie de volta o proximoCursor recebido.
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<UserAnimeResponse>> getUserAnimeListPorCursor(
+                @AuthenticationPrincipal(errorOnInvalidType = true) AuthenticatedUser usuario,
+                @RequestParam(required = false) AnimeStatus status,
+                @RequestParam(required = false) String cursor,
+                @RequestParam(defaultValue = "20") int size) {
+        CursorPage<UserAnime> pagina;
+        try {
+            pagina = userAnimeService.getUserAnimeListPorCursor(usuario.getId(), status, cursor, Math.min(Math.max(size, 1), 100));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<UserAnimeResponse> itens = pagina.itens().stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(new CursorPage<>(itens, pagina.proximoCursor(), pagina.temMais()));
     }
 
     @GetMapping("/status-counts")
-    public ResponseEntity<Map<AnimeStatus, Long>> getAnimeStatusCounts() {
+    public ResponseEntity<Map<AnimeStatus, Long>> getAnimeStatusCounts(
+                @AuthenticationPrincipal(errorOnInvalidType = true) AuthenticatedUser usuario) {
         System.out.println("UserAnimeController: Acessando getAnimeStatusCounts (GET).");
-        String username = getAuthenticatedUsername();
 
-        Map<AnimeStatus, Long> statusCounts = userAnimeService.getAnimeStatusCountsForUser(username);
+        Map<AnimeStatus, Long> statusCounts = userAnimeService.getAnimeStatusCountsForUser(usuario.getId());
         return ResponseEntity.ok(statusCounts);
     }
 
     @GetMapping("/count")
     public ResponseEntity<Long> countUserAnimesByStatus(
+                @AuthenticationPrincipal(errorOnInvalidType = true) AuthenticatedUser usuario,
                 @RequestParam AnimeStatus status) {
         System.out.println("UserAnimeController: Acessando countUserAnimesByStatus (GET).");
-        Long userId = getAuthenticatedUserId();
+        Long userId = usuario.getId();
 
         if (status == null) {
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
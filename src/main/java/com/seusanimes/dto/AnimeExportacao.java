@@ -0,0 +1,13 @@
+package com.seusanimes.dto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Uma linha da exportação NDJSON do catálogo: as colunas do anime e os nomes das suas categorias.
+ */
+public record AnimeExportacao(Long id, Long malId, String titulo, String sinopse, Integer episodios, String imagemUrl,
+                              String status, LocalDate anoLancamento, Integer ano, String temporada,
+                              Instant atualizadoEm, List<String> categorias) {
+}
@@ -0,0 +1,5 @@
+package com.seusanimes.dto;
+
+// Sugestão do autocomplete: só o necessário para o dropdown do frontend
+public record AnimeSugestao(Long id, String titulo, String imagemUrl, long popularidade) {
+}
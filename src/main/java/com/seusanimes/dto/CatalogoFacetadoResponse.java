@@ -0,0 +1,16 @@
+package com.seusanimes.dto;
+
+import com.seusanimes.model.Anime;
+
+import java.util.List;
+import java.util.Map;
+
+// Página de resultados da busca facetada, com as contagens de todo o resultado (não só da página)
+public record CatalogoFacetadoResponse(List<Anime> animes,
+                                       long total,
+                                       int pagina,
+                                       int tamanho,
+                                       Map<String, Long> generos,
+                                       Map<Integer, Long> anos,
+                                       Map<String, Long> status) {
+}
@@ -0,0 +1,10 @@
+package com.seusanimes.dto;
+
+import java.util.List;
+
+/**
+ * Uma fatia de resultados paginados por cursor (keyset), sem contagem total.
+ * proximoCursor é nulo na última fatia; para continuar, envie-o de volta em ?cursor=.
+ */
+public record CursorPage<T>(List<T> itens, String proximoCursor, boolean temMais) {
+}
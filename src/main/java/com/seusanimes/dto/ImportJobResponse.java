@@ -0,0 +1,26 @@
+package com.seusanimes.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportJobResponse {
+    private String jobId;
+    private String status; // PENDENTE, EXECUTANDO, CONCLUIDO ou FALHOU
+    private Integer anoInicio;
+    private Integer anoFim;
+
+    private Long paginasBuscadas;
+    private Long animesLidos;
+    private Long registrosGravados;
+    private Long erros;
+    private String ultimoErro;
+
+    private LocalDateTime criadoEm;
+    private LocalDateTime finalizadoEm;
+}
@@ -0,0 +1,20 @@
+package com.seusanimes.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Dados de um anime da API Jikan, já convertidos para os tipos que persistimos.
+ * Trafega entre os estágios do pipeline de importação.
+ */
+public record JikanAnime(
+        Long malId,
+        String titulo,
+        String sinopse,
+        Integer episodios,
+        String imagemUrl,
+        String status,
+        LocalDate dataLancamento,
+        List<String> generos
+) {
+}
@@ -0,0 +1,10 @@
+package com.seusanimes.dto;
+
+import java.util.List;
+
+// Uma página da busca de animes da Jikan, com a indicação de paginação
+public record JikanPagina(
+        List<JikanAnime> animes,
+        boolean temProximaPagina
+) {
+}
@@ -0,0 +1,12 @@
+package com.seusanimes.dto;
+
+import java.util.List;
+
+/**
+ * Resultado de POST /api/animes/lote.
+ *
+ * @param ids Ids dos animes gravados, na ordem em que vieram no corpo.
+ * @param naoEncontrados Ids informados para atualização que não existem no banco (ignorados).
+ */
+public record LoteAnimesResponse(int criados, int atualizados, List<Long> ids, List<Long> naoEncontrados) {
+}
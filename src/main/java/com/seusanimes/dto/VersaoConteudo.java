@@ -0,0 +1,25 @@
+package com.seusanimes.dto;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Versão de um recurso lida por consulta agregada (quantidade de linhas e última alteração),
+ * para responder requisições condicionais sem carregar nem serializar as entidades.
+ */
+public record VersaoConteudo(Long itens, Instant ultimaAlteracao) {
+
+    public boolean existe() {
+        return itens != null && itens > 0;
+    }
+
+    // ETag forte: muda quando uma linha é inserida, removida ou alterada
+    public String etag(String prefixo) {
+        long micros = ultimaAlteracao == null ? 0L : ChronoUnit.MICROS.between(Instant.EPOCH, ultimaAlteracao);
+        return "\"" + prefixo + "-" + (itens == null ? 0L : itens) + "-" + Long.toString(micros, 36) + "\"";
+    }
+
+    public long ultimaAlteracaoEmMillis() {
+        return ultimaAlteracao == null ? -1L : ultimaAlteracao.toEpochMilli();
+    }
+}
@@ -0,0 +1,14 @@
+package com.seusanimes.event;
+
+import java.util.Set;
+
+/**
+ * Publicado quando um anime é criado ou alterado (CRUD ou importação da Jikan).
+ * Os índices em memória escutam com @TransactionalEventListener: só veem o que foi confirmado.
+ *
+ * anoAnterior e categoriaIdsAnteriores são o ano e as categorias com que o anime estava no CatalogoIndex
+ * quando o evento foi publicado (nulos para um anime novo): quem invalida por ano/gênero precisa dos dois lados.
+ */
+public record AnimeAlteradoEvent(Long id, String titulo, String imagemUrl, Integer ano, String status, Set<Long> categoriaIds,
+                                 Integer anoAnterior, Set<Long> categoriaIdsAnteriores) {
+}
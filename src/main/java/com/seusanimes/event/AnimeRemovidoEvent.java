@@ -0,0 +1,5 @@
+package com.seusanimes.event;
+
+// Publicado quando um anime é excluído
+public record AnimeRemovidoEvent(Long id) {
+}
@@ -0,0 +1,5 @@
+package com.seusanimes.event;
+
+// Um anime entrou (+1) ou saiu (-1) da lista de algum usuário
+public record PopularidadeAlteradaEvent(Long animeId, int delta) {
+}
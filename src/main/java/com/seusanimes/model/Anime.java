@@ -3,8 +3,14 @@ package com.seusanimes.model; // PACOTE CORRETO PARA O SEUSANIMELIST
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.Set;
@@ -14,13 +20,26 @@ import java.util.Objects; // Manter Objects para equals/hashCode customizados se
 @AllArgsConstructor
 @Data // Anotação do Lombok para gerar getters, setters, toString, equals, hashCode automaticamente
 @Entity
-@Table(name = "animes") // Nome da tabela que já tem os dados no banco de dados
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "anime") // cache de segundo nível (application.conf)
+@Table(name = "animes", // Nome da tabela que já tem os dados no banco de dados
+       indexes = {
+           @Index(name = "idx_animes_ano_temporada_id", columnList = "ano, temporada, id")
+       })
 public class Anime {
 
+    // Sequência com alocação em blocos: o id sai antes do INSERT (50 por ida ao banco), o que permite ao
+    // Hibernate agrupar os inserts em batches JDBC. Com IDENTITY cada insert precisava ser executado na hora.
+    // O incremento da sequência no banco acompanha o allocationSize (ajustado em schema.sql).
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY) // O banco de dados vai gerar o ID automaticamente
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "animes_id_seq")
+    @SequenceGenerator(name = "animes_id_seq", sequenceName = "animes_id_seq", allocationSize = 50)
     private Long id;
 
+    // Identificador do anime no MyAnimeList/Jikan; chave das importações (upsert por mal_id)
+    @Column(name = "mal_id", unique = true)
+    private Long malId;
+
+    // O índice único também atende a paginação por cursor em ordem de título (AnimeRepository.proximosPorTitulo)
     @Column(nullable = false, unique = true, name = "titulo") // O nome da coluna no DB é 'titulo'
     private String titulo; // Corresponde ao 'nome_do_anime' do seu antigo model, mas 'titulo' é mais consistente com a API externa
 
@@ -33,7 +52,24 @@ public class Anime {
 
     private LocalDate anoLancamento; // Campo para o ano de lançamento (LocalDate)
 
+    // Derivados de anoLancamento e indexados juntos: navegação por ano/temporada é um range scan
+    @Column(name = "ano")
+    private Integer ano;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "temporada", length = 10)
+    private Temporada temporada;
+
+    // Última alteração do anime ou da lista de categorias; base do ETag de GET /api/animes/{id}
+    @Column(name = "atualizado_em")
+    private Instant atualizadoEm;
+
+    // Carregadas em lote (hibernate.default_batch_fetch_size): uma página de animes custa um SELECT de categorias,
+    // não um por anime. Fora de equals/hashCode/toString para que nenhum deles dispare o carregamento.
     @ManyToMany(fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "anime-categorias")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @JoinTable(
         name = "anime_categoria", // Nome da tabela de junção
         joinColumns = @JoinColumn(name = "anime_id"),
@@ -45,22 +81,35 @@ public class Anime {
     // mas se você tiver alguma lógica específica em equals/hashCode como a original,
     // pode sobrescrever (o Lombok @Data já gera um padrão baseado em todos os campos não-transientes)
 
+    @PrePersist
+    @PreUpdate
+    void preencherDerivados() {
+        this.atualizadoEm = Instant.now();
+        this.ano = anoLancamento != null ? anoLancamento.getYear() : null;
+        this.temporada = Temporada.de(anoLancamento);
+    }
+
     // Métodos auxiliares para gerenciar categorias (importante para a relação)
     public void addCategoria(Categoria categoria) {
         if (this.categorias == null) {
             this.categorias = new HashSet<>();
         }
         this.categorias.add(categoria);
-        // Garante a bidirecionalidade se Categoria também for configurada corretamente
+        // Garante a bidirecionalidade se Categoria também for configurada corretamente.
+        // O lado inverso só é tocado se já estiver carregado: inicializá-lo traria todos os animes da categoria.
         if (categoria.getAnimes() == null) {
             categoria.setAnimes(new HashSet<>());
         }
-        categoria.getAnimes().add(this);
+        if (Hibernate.isInitialized(categoria.getAnimes())) {
+            categoria.getAnimes().add(this);
+        }
     }
 
     public void removeCategoria(Categoria categoria) {
         this.categorias.remove(categoria);
-        categoria.getAnimes().remove(this);
+        if (categoria.getAnimes() != null && Hibernate.isInitialized(categoria.getAnimes())) {
+            categoria.getAnimes().remove(this);
+        }
     }
 
     // Você pode manter o equals e hashCode customizados da versão antiga se a lógica for crítica,
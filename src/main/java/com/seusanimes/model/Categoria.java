@@ -2,6 +2,9 @@ package com.seusanimes.model; // PACOTE CORRETO PARA O SEUSANIMELIST
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
@@ -15,6 +18,7 @@ import java.util.Set;
 // @AllArgsConstructor
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "categoria") // cache de segundo nível (application.conf)
 @Table(name = "categorias") // Nome da tabela no banco de dados
 public class Categoria {
     @Id
@@ -24,11 +28,21 @@ public class Categoria {
     @Column(nullable = false, unique = true)
     private String nome;
 
+    // Base do ETag de GET /api/categorias (junto com a quantidade de categorias)
+    @Column(name = "atualizado_em")
+    private Instant atualizadoEm;
+
     // mappedBy aponta para o nome do atributo na classe "dona" do relacionamento (Anime)
     @ManyToMany(mappedBy = "categorias", fetch = FetchType.LAZY)
     @JsonIgnore // Evita loops infinitos em serialização JSON ao retornar categorias
     private Set<Anime> animes = new HashSet<>(); // HashSet é uma boa escolha para coleções
 
+    @PrePersist
+    @PreUpdate
+    void marcarAlteracao() {
+        this.atualizadoEm = Instant.now();
+    }
+
     public Categoria() {
     }
 
@@ -53,6 +67,10 @@ public class Categoria {
         this.nome = nome;
     }
 
+    public Instant getAtualizadoEm() {
+        return atualizadoEm;
+    }
+
     public Set<Anime> getAnimes() {
         return animes;
     }
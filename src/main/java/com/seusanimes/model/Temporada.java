@@ -0,0 +1,18 @@
+package com.seusanimes.model;
+
+import java.time.LocalDate;
+
+// Temporadas de lançamento no calendário de animes (inverno = janeiro a março, e assim por diante)
+public enum Temporada {
+    INVERNO,
+    PRIMAVERA,
+    VERAO,
+    OUTONO;
+
+    public static Temporada de(LocalDate data) {
+        if (data == null) {
+            return null;
+        }
+        return values()[(data.getMonthValue() - 1) / 3];
+    }
+}
@@ -39,6 +39,16 @@ public class User implements UserDetails { // <<-- MUITO IMPORTANTE: Implemente
     @Column(nullable = false)
     private String password;
 
+    // Papel do usuário sem o prefixo "ROLE_" (USER ou ADMIN). Nulo em registros antigos = USER.
+    // Não há endpoint para promover usuários: ADMIN é atribuído direto no banco.
+    @Column(name = "role", length = 20)
+    private String role;
+
+    // Incrementada a cada inclusão, alteração ou remoção na lista de animes do usuário (ETag de GET /api/user-animes).
+    // Atualizada só por UPDATE em massa (UserRepository.incrementarVersaoDaLista), nunca pela entidade.
+    @Column(name = "lista_versao", insertable = false, updatable = false)
+    private Long listaVersao;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -63,7 +73,7 @@ public class User implements UserDetails { // <<-- MUITO IMPORTANTE: Implemente
         // Por enquanto, podemos retornar uma role padrão ou uma lista vazia.
         // O "ROLE_" é um prefixo que o Spring Security geralmente espera para roles.
         // Se você tiver um campo de role na sua entidade User, use-o aqui.
-        return Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"));
+        return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + (role != null ? role : "USER")));
     }
 
     @Override
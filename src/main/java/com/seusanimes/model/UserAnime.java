@@ -1,10 +1,12 @@
 package com.seusanimes.model;
 
 import jakarta.persistence.*; // Use 'javax.persistence.*' se estiver em Spring Boot 2.x
+import java.time.Instant;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "user_animes")
+@Table(name = "user_animes",
+       indexes = @Index(name = "idx_user_animes_user_id_id", columnList = "user_id, id")) // lista do usuário por keyset
 public class UserAnime {
 
     @Id
@@ -35,9 +37,18 @@ public class UserAnime {
     @Column(name = "finished_at")
     private LocalDateTime finishedAt;
 
+    @Column(name = "atualizado_em")
+    private Instant atualizadoEm;
+
     public UserAnime() {
     }
 
+    @PrePersist
+    @PreUpdate
+    void marcarAlteracao() {
+        this.atualizadoEm = Instant.now();
+    }
+
     // Getters e Setters (Certifique-se que estão presentes ou use Lombok com @Data na entidade)
     // Se você usa Lombok, pode remover manualmente estes getters/setters e deixar apenas @Data.
     // Estou incluindo-os aqui para garantir que o código funcione mesmo sem Lombok se ele for o problema.
@@ -98,6 +109,10 @@ public class UserAnime {
         this.startedAt = startedAt;
     }
 
+    public Instant getAtualizadoEm() {
+        return atualizadoEm;
+    }
+
     public LocalDateTime getFinishedAt() {
         return finishedAt;
     }
@@ -1,29 +1,100 @@
 package com.seusanimes.repository;
 
+import com.seusanimes.dto.VersaoConteudo;
 import com.seusanimes.model.Anime;
+import com.seusanimes.model.Temporada;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AnimeRepository extends JpaRepository<Anime, Long> {
 
-    // 1. PAGINAÇÃO NA BUSCA POR ANO (CORRIGIDA)
-    @Query("SELECT a FROM Anime a WHERE a.anoLancamento = :ano")
-    Page<Anime> findByAnoLancamento(@Param("ano") Integer ano, Pageable pageable);
+    // Versão do JSON de um anime: ele mesmo e as categorias (o nome delas vai junto na resposta)
+    @Query("SELECT new com.seusanimes.dto.VersaoConteudo(COUNT(DISTINCT a), greatest(MAX(a.atualizadoEm), MAX(c.atualizadoEm))) " +
+           "FROM Anime a LEFT JOIN a.categorias c WHERE a.id = :id")
+    VersaoConteudo versao(@Param("id") Long id);
 
-    // 2. BUSCA POR TÍTULO
-    List<Anime> findByTituloContainingIgnoreCase(String titulo);
+    // 1. BUSCA POR ANO / INTERVALO DE ANOS / TEMPORADA (índice ano, temporada, id)
+    Page<Anime> findByAno(Integer ano, Pageable pageable);
 
-    // 3. BUSCA POR CATEGORIA
-    List<Anime> findByCategorias_NomeContainingIgnoreCase(String categoriaNome);
+    Page<Anime> findByAnoAndTemporada(Integer ano, Temporada temporada, Pageable pageable);
+
+    Page<Anime> findByAnoBetween(Integer anoInicio, Integer anoFim, Pageable pageable);
+
+    Page<Anime> findByAnoBetweenAndTemporada(Integer anoInicio, Integer anoFim, Temporada temporada, Pageable pageable);
 
     // 4. BUSCA POR TÍTULO EXATO
     Optional<Anime> findByTitulo(String titulo);
-}
\ No newline at end of file
+
+    // 5. BUSCA PELO ID DO MYANIMELIST (coluna única e indexada)
+    Optional<Anime> findByMalId(Long malId);
+
+    // 6. BUSCA POR TÍTULO COM RELEVÂNCIA (índice GIN de trigramas, ver schema.sql)
+    // Trechos exatos (ILIKE) vêm primeiro; depois os títulos parecidos, pela similaridade de trigramas.
+    @Query(value = "SELECT * FROM animes a WHERE a.titulo ILIKE :padrao OR a.titulo % :termo " +
+            "ORDER BY (a.titulo ILIKE :padrao) DESC, similarity(a.titulo, :termo) DESC, a.id",
+            countQuery = "SELECT count(*) FROM animes a WHERE a.titulo ILIKE :padrao OR a.titulo % :termo",
+            nativeQuery = true)
+    Page<Anime> buscarPorTituloRanqueado(@Param("termo") String termo, @Param("padrao") String padrao, Pageable pageable);
+
+    // 6.1 Mesma busca sem pg_trgm: só o ILIKE, sem ranking por similaridade
+    @Query(value = "SELECT * FROM animes a WHERE a.titulo ILIKE :padrao ORDER BY length(a.titulo), a.id",
+            countQuery = "SELECT count(*) FROM animes a WHERE a.titulo ILIKE :padrao",
+            nativeQuery = true)
+    Page<Anime> buscarPorTrechoDoTitulo(@Param("padrao") String padrao, Pageable pageable);
+
+    // 6.2 As mesmas buscas devolvendo só os ids, para as projeções de ?fields=
+    @Query(value = "SELECT a.id FROM animes a WHERE a.titulo ILIKE :padrao OR a.titulo % :termo " +
+            "ORDER BY (a.titulo ILIKE :padrao) DESC, similarity(a.titulo, :termo) DESC, a.id",
+            countQuery = "SELECT count(*) FROM animes a WHERE a.titulo ILIKE :padrao OR a.titulo % :termo",
+            nativeQuery = true)
+    Page<Long> buscarIdsPorTituloRanqueado(@Param("termo") String termo, @Param("padrao") String padrao, Pageable pageable);
+
+    @Query(value = "SELECT a.id FROM animes a WHERE a.titulo ILIKE :padrao ORDER BY length(a.titulo), a.id",
+            countQuery = "SELECT count(*) FROM animes a WHERE a.titulo ILIKE :padrao",
+            nativeQuery = true)
+    Page<Long> buscarIdsPorTrechoDoTitulo(@Param("padrao") String padrao, Pageable pageable);
+
+    // 7. TÍTULOS PARA OS ÍNDICES EM MEMÓRIA (sem carregar entidades): {id, titulo, imagemUrl}
+    @Query("SELECT a.id, a.titulo, a.imagemUrl FROM Anime a")
+    List<Object[]> listarTitulos();
+
+    // 8. PAGINAÇÃO POR KEYSET: a próxima fatia começa depois da última chave vista, sem OFFSET nem count(*).
+    // titulo é único: sozinho já é uma ordem total, e o range scan usa o índice da restrição unique.
+    @Query(value = "SELECT * FROM animes ORDER BY titulo LIMIT :limite", nativeQuery = true)
+    List<Anime> primeirosPorTitulo(@Param("limite") int limite);
+
+    @Query(value = "SELECT * FROM animes WHERE titulo > :titulo ORDER BY titulo LIMIT :limite", nativeQuery = true)
+    List<Anime> proximosPorTitulo(@Param("titulo") String titulo, @Param("limite") int limite);
+
+    List<Anime> findByIdGreaterThanOrderByIdAsc(Long id, Limit limite);
+
+    // Listas de ids vindas dos índices em memória podem cobrir quase o catálogo todo: consultas por id
+    // (findAllById, ProjecaoRepository.animesPorIds) vão em blocos deste tamanho. Um IN único passaria
+    // do limite de 65535 parâmetros por comando do driver do PostgreSQL.
+    int MAX_IDS_POR_CONSULTA = 1_000;
+
+    // 9. EXPORTAÇÃO: cursor do servidor, só para frente, lendo TAMANHO_LOTE_EXPORTACAO linhas por ida ao banco.
+    // Somente leitura e fora do cache de segundo nível. Precisa de transação (no PostgreSQL, sem autocommit).
+    int TAMANHO_LOTE_EXPORTACAO = 500;
+
+    @Query("SELECT a FROM Anime a WHERE a.id > :depoisDe ORDER BY a.id")
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "" + TAMANHO_LOTE_EXPORTACAO),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    Stream<Anime> streamPorIdDepoisDe(@Param("depoisDe") long depoisDe);
+}
@@ -0,0 +1,144 @@
+package com.seusanimes.repository;
+
+import com.seusanimes.dto.JikanAnime;
+import com.seusanimes.model.Anime;
+import com.seusanimes.model.Temporada;
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gravação em lote dos animes importados da Jikan, usando upsert nativo do PostgreSQL
+ * com mal_id como chave. Um lote de N animes custa alguns poucos comandos em batch,
+ * em vez de uma busca e um insert por anime.
+ *
+ * Deve ser chamado dentro de uma transação (o JdbcTemplate participa da transação JPA).
+ *
+ * Os ids dos animes novos saem do mesmo gerador do Hibernate (blocos de 50 de animes_id_seq):
+ * um nextval por linha no SQL gastaria um bloco inteiro por anime importado e deixaria os ids
+ * esparsos, e o CatalogoIndex guarda colunas indexadas pelo id.
+ */
+@Repository
+public class AnimeUpsertRepository {
+
+    // Registros criados antes da coluna mal_id são adotados pelo título exato
+    private static final String ADOTAR_POR_TITULO_SQL =
+            "UPDATE animes SET mal_id = ?, atualizado_em = now() WHERE titulo = ? AND mal_id IS NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM animes WHERE mal_id = ?)";
+
+    // id sempre explícito (em bancos novos a coluna não tem DEFAULT); num conflito o id existente é mantido
+    private static final String UPSERT_SQL =
+            "INSERT INTO animes (id, mal_id, titulo, sinopse, episodios, imagem_url, status, ano_lancamento, ano, temporada, atualizado_em) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, now()) " +
+            "ON CONFLICT (mal_id) DO UPDATE SET " +
+            "titulo = EXCLUDED.titulo, sinopse = EXCLUDED.sinopse, episodios = EXCLUDED.episodios, " +
+            "imagem_url = EXCLUDED.imagem_url, status = EXCLUDED.status, ano_lancamento = EXCLUDED.ano_lancamento, " +
+            "ano = EXCLUDED.ano, temporada = EXCLUDED.temporada, atualizado_em = EXCLUDED.atualizado_em";
+
+    private static final int[] UPSERT_TIPOS = {
+            Types.BIGINT, Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.DATE, Types.INTEGER, Types.VARCHAR
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final EntityManager entityManager;
+
+    public AnimeUpsertRepository(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate,
+                                 EntityManager entityManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Insere ou atualiza os animes pelo mal_id.
+     *
+     * @param animes Animes com malId preenchido.
+     * @return Mapa de mal_id para o id interno de cada anime gravado.
+     */
+    public Map<Long, Long> upsert(List<JikanAnime> animes) {
+        if (animes.isEmpty()) {
+            return Map.of();
+        }
+
+        List<Object[]> adocoes = new ArrayList<>(animes.size());
+        for (JikanAnime anime : animes) {
+            adocoes.add(new Object[]{anime.malId(), anime.titulo(), anime.malId()});
+        }
+        jdbcTemplate.batchUpdate(ADOTAR_POR_TITULO_SQL, adocoes, new int[]{Types.BIGINT, Types.VARCHAR, Types.BIGINT});
+
+        // Só os animes que ainda não existem consomem ids novos
+        List<Long> malIds = animes.stream().map(JikanAnime::malId).toList();
+        Map<Long, Long> existentes = idsPorMalId(malIds);
+        List<Object[]> linhas = new ArrayList<>(animes.size());
+        for (JikanAnime anime : animes) {
+            Long id = existentes.get(anime.malId());
+            Temporada temporada = Temporada.de(anime.dataLancamento());
+            linhas.add(new Object[]{
+                    id != null ? id : proximoId(),
+                    anime.malId(),
+                    anime.titulo(),
+                    anime.sinopse(),
+                    anime.episodios(),
+                    anime.imagemUrl(),
+                    anime.status(),
+                    anime.dataLancamento() != null ? Date.valueOf(anime.dataLancamento()) : null,
+                    anime.dataLancamento() != null ? anime.dataLancamento().getYear() : null,
+                    temporada != null ? temporada.name() : null
+            });
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, linhas, UPSERT_TIPOS);
+
+        // Relido: uma importação concorrente pode ter inserido o mesmo mal_id entre a leitura e o upsert
+        return idsPorMalId(malIds);
+    }
+
+    private Map<Long, Long> idsPorMalId(List<Long> malIds) {
+        Map<Long, Long> idsPorMalId = new HashMap<>();
+        namedJdbcTemplate.query("SELECT id, mal_id FROM animes WHERE mal_id IN (:malIds)",
+                new MapSqlParameterSource("malIds", malIds),
+                rs -> {
+                    idsPorMalId.put(rs.getLong("mal_id"), rs.getLong("id"));
+                });
+        return idsPorMalId;
+    }
+
+    // Próximo id do otimizador em blocos do Hibernate (o mesmo usado por persist de Anime)
+    private Long proximoId() {
+        SharedSessionContractImplementor sessao = entityManager.unwrap(SharedSessionContractImplementor.class);
+        BeforeExecutionGenerator gerador = (BeforeExecutionGenerator) sessao.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(Anime.class).getGenerator();
+        return (Long) gerador.generate(sessao, null, null, EventType.INSERT);
+    }
+
+    /**
+     * Substitui as categorias dos animes informados pelas novas associações.
+     *
+     * @param animeIds Animes cujas associações serão substituídas.
+     * @param associacoes Pares {anime_id, categoria_id}.
+     */
+    public void substituirCategorias(Collection<Long> animeIds, List<Object[]> associacoes) {
+        if (animeIds.isEmpty()) {
+            return;
+        }
+        namedJdbcTemplate.update("DELETE FROM anime_categoria WHERE anime_id IN (:animeIds)",
+                new MapSqlParameterSource("animeIds", animeIds));
+        if (!associacoes.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO anime_categoria (anime_id, categoria_id) VALUES (?, ?)",
+                    associacoes, new int[]{Types.BIGINT, Types.BIGINT});
+        }
+    }
+}
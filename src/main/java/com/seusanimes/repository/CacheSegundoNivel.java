@@ -0,0 +1,57 @@
+package com.seusanimes.repository;
+
+import com.seusanimes.model.Anime;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Invalidação do cache de segundo nível para escritas feitas fora do Hibernate (JdbcTemplate/SQL nativo).
+ *
+ * As escritas via JPA já são tratadas pelo próprio Hibernate (READ_WRITE). Aqui a entrada é removida
+ * na hora, para a própria transação não ler a versão antiga, e de novo após o commit, para descartar
+ * o que outra transação tenha recolocado no cache com os dados anteriores nesse intervalo.
+ */
+@Component
+public class CacheSegundoNivel {
+
+    private static final String ROLE_CATEGORIAS_DO_ANIME = Anime.class.getName() + ".categorias";
+
+    private final Cache cache;
+
+    public CacheSegundoNivel(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    // Animes (e suas categorias) gravados pelo upsert da importação
+    public void evictAnimes(Collection<Long> animeIds) {
+        List<Long> ids = List.copyOf(animeIds);
+        executarAgoraEAposCommit(() -> ids.forEach(id -> {
+            cache.evictEntityData(Anime.class, id);
+            cache.evictCollectionData(ROLE_CATEGORIAS_DO_ANIME, id);
+        }));
+    }
+
+    // Resultados de consultas cacheáveis (ex.: lista de categorias) após inserts nativos
+    public void evictConsultas() {
+        executarAgoraEAposCommit(cache::evictDefaultQueryRegion);
+    }
+
+    private static void executarAgoraEAposCommit(Runnable evict) {
+        evict.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        }
+    }
+}
@@ -1,9 +1,25 @@
 package com.seusanimes.repository;
 
 import com.seusanimes.model.Categoria;
+import com.seusanimes.dto.VersaoConteudo;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.List;
 import java.util.Optional; // Don't forget this import for Optional
 
 public interface CategoriaRepository extends JpaRepository<Categoria, Long> {
+
+    // Lista completa vem do cache de consultas; qualquer escrita em categorias via JPA a invalida
+    @Override
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    List<Categoria> findAll();
+
+    @Query("SELECT new com.seusanimes.dto.VersaoConteudo(COUNT(c), MAX(c.atualizadoEm)) FROM Categoria c")
+    VersaoConteudo versao();
+
     Optional<Categoria> findByNomeIgnoreCase(String nome);
 }
\ No newline at end of file
@@ -0,0 +1,212 @@
+package com.seusanimes.repository;
+
+import com.seusanimes.model.Anime;
+import com.seusanimes.model.AnimeStatus;
+import com.seusanimes.model.UserAnime;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Consultas de ?fields=: o SELECT traz só as colunas pedidas, como tuplas. Nenhuma entidade é
+ * hidratada nem entra no contexto de persistência, e sinopse/categorias só são lidas se pedidas.
+ *
+ * Cada linha vira um mapa campo -> valor, na ordem em que os campos foram pedidos.
+ */
+@Repository
+public class ProjecaoRepository {
+
+    // Campos de Anime aceitos em ?fields= (atributos simples; categorias não é uma coluna)
+    public static final List<String> CAMPOS_ANIME = List.of(
+            "id", "malId", "titulo", "sinopse", "episodios", "imagemUrl", "status",
+            "anoLancamento", "ano", "temporada", "atualizadoEm");
+    public static final List<String> RESUMO_ANIME = List.of("id", "titulo", "imagemUrl", "ano");
+
+    // Campos de UserAnimeResponse aceitos em ?fields=, com o caminho correspondente a partir de UserAnime
+    private static final Map<String, String> CAMINHOS_USER_ANIME = new LinkedHashMap<>();
+    static {
+        CAMINHOS_USER_ANIME.put("id", "id");
+        CAMINHOS_USER_ANIME.put("animeId", "anime.id");
+        CAMINHOS_USER_ANIME.put("animeName", "anime.titulo");
+        CAMINHOS_USER_ANIME.put("animeGenre", null); // nomes das categorias, numa segunda consulta
+        CAMINHOS_USER_ANIME.put("animeReleaseYear", "anime.ano");
+        CAMINHOS_USER_ANIME.put("animeSynopsis", "anime.sinopse");
+        CAMINHOS_USER_ANIME.put("animeImageUrl", "anime.imagemUrl");
+        CAMINHOS_USER_ANIME.put("status", "status");
+        CAMINHOS_USER_ANIME.put("score", "score");
+        CAMINHOS_USER_ANIME.put("episodesWatched", "episodesWatched");
+    }
+    public static final List<String> CAMPOS_USER_ANIME = List.copyOf(CAMINHOS_USER_ANIME.keySet());
+    public static final List<String> RESUMO_USER_ANIME = List.of("id", "animeId", "animeName", "animeImageUrl", "animeReleaseYear", "status");
+
+    private static final String ANIME_ID_INTERNO = "__animeId";
+
+    private final EntityManager entityManager;
+
+    public ProjecaoRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    // Catálogo paginado (mesma ordenação do Pageable), só com as colunas pedidas
+    public Page<Map<String, Object>> listarAnimes(List<String> campos, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Anime> anime = query.from(Anime.class);
+        query.multiselect(selecionar(anime, campos));
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), anime, cb));
+
+        List<Tuple> linhas = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        return PageableExecutionUtils.getPage(paraMapas(linhas, campos), pageable, this::contarAnimes);
+    }
+
+    private long contarAnimes() {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        query.select(cb.count(query.from(Anime.class)));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    // Animes dos ids informados, na ordem dos ids (resultados de índice ou ranking já ordenados).
+    // Listas grandes vão em blocos de AnimeRepository.MAX_IDS_POR_CONSULTA ids.
+    public List<Map<String, Object>> animesPorIds(List<String> campos, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<String> comId = campos.contains("id") ? campos : adicionar(campos, "id");
+        Map<Object, Map<String, Object>> porId = new HashMap<>(ids.size());
+        for (int inicio = 0; inicio < ids.size(); inicio += AnimeRepository.MAX_IDS_POR_CONSULTA) {
+            List<Long> bloco = ids.subList(inicio, Math.min(inicio + AnimeRepository.MAX_IDS_POR_CONSULTA, ids.size()));
+            for (Tuple linha : animesDoBloco(comId, bloco)) {
+                porId.put(linha.get("id"), paraMapa(linha, campos));
+            }
+        }
+        return ids.stream().map(porId::get).filter(Objects::nonNull).toList();
+    }
+
+    private List<Tuple> animesDoBloco(List<String> campos, List<Long> ids) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Anime> anime = query.from(Anime.class);
+        query.multiselect(selecionar(anime, campos));
+        query.where(anime.get("id").in(ids));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    // Lista do usuário em ordem de inclusão, opcionalmente filtrada por status
+    public List<Map<String, Object>> listarUserAnimes(Long userId, AnimeStatus status, List<String> campos) {
+        boolean comGeneros = campos.contains("animeGenre");
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<UserAnime> userAnime = query.from(UserAnime.class);
+
+        List<Selection<?>> selecoes = new ArrayList<>();
+        for (String campo : campos) {
+            String caminho = CAMINHOS_USER_ANIME.get(campo);
+            if (caminho != null) {
+                selecoes.add(caminho(userAnime, caminho).alias(campo));
+            }
+        }
+        if (comGeneros) {
+            selecoes.add(userAnime.get("anime").get("id").alias(ANIME_ID_INTERNO));
+        }
+        query.multiselect(selecoes);
+
+        List<Predicate> filtros = new ArrayList<>();
+        filtros.add(cb.equal(userAnime.get("user").get("id"), userId));
+        if (status != null) {
+            filtros.add(cb.equal(userAnime.get("status"), status));
+        }
+        query.where(filtros.toArray(Predicate[]::new));
+        query.orderBy(cb.asc(userAnime.get("id")));
+
+        List<Tuple> linhas = entityManager.createQuery(query).getResultList();
+        Map<Long, String> generos = comGeneros
+                ? generosPorAnime(linhas.stream().map(linha -> linha.get(ANIME_ID_INTERNO, Long.class)).distinct().toList())
+                : Map.of();
+
+        List<Map<String, Object>> resultado = new ArrayList<>(linhas.size());
+        for (Tuple linha : linhas) {
+            Map<String, Object> mapa = new LinkedHashMap<>();
+            for (String campo : campos) {
+                mapa.put(campo, "animeGenre".equals(campo)
+                        ? generos.get(linha.get(ANIME_ID_INTERNO, Long.class))
+                        : linha.get(campo));
+            }
+            resultado.add(mapa);
+        }
+        return resultado;
+    }
+
+    // Nomes das categorias de cada anime, juntos por vírgula como em UserAnimeResponse.animeGenre
+    private Map<Long, String> generosPorAnime(Collection<Long> animeIds) {
+        if (animeIds.isEmpty()) {
+            return Map.of();
+        }
+        return entityManager.createQuery(
+                        "SELECT a.id, c.nome FROM Anime a JOIN a.categorias c WHERE a.id IN :ids ORDER BY c.nome", Tuple.class)
+                .setParameter("ids", animeIds)
+                .getResultStream()
+                .collect(Collectors.groupingBy(linha -> linha.get(0, Long.class), LinkedHashMap::new,
+                        Collectors.mapping(linha -> linha.get(1, String.class), Collectors.joining(", "))));
+    }
+
+    private static List<Selection<?>> selecionar(Root<?> root, List<String> campos) {
+        List<Selection<?>> selecoes = new ArrayList<>(campos.size());
+        for (String campo : campos) {
+            selecoes.add(root.get(campo).alias(campo));
+        }
+        return selecoes;
+    }
+
+    private static Path<?> caminho(Root<?> root, String caminho) {
+        Path<?> path = root;
+        for (String parte : caminho.split("\\.")) {
+            path = path.get(parte);
+        }
+        return path;
+    }
+
+    private static List<Map<String, Object>> paraMapas(List<Tuple> linhas, List<String> campos) {
+        List<Map<String, Object>> mapas = new ArrayList<>(linhas.size());
+        for (Tuple linha : linhas) {
+            mapas.add(paraMapa(linha, campos));
+        }
+        return mapas;
+    }
+
+    private static Map<String, Object> paraMapa(Tuple linha, List<String> campos) {
+        Map<String, Object> mapa = new LinkedHashMap<>();
+        for (String campo : campos) {
+            mapa.put(campo, linha.get(campo));
+        }
+        return mapa;
+    }
+
+    private static List<String> adicionar(List<String> campos, String campo) {
+        List<String> todos = new ArrayList<>(campos);
+        todos.add(campo);
+        return todos;
+    }
+}
@@ -1,10 +1,11 @@
 package com.seusanimes.repository;
 
+import com.seusanimes.dto.VersaoConteudo;
 import com.seusanimes.model.UserAnime;
-import com.seusanimes.model.User;
-import com.seusanimes.model.Anime;
 import com.seusanimes.model.AnimeStatus; // Importação correta do Enum
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -12,19 +13,40 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
 
+// As listas do usuário trazem o anime no mesmo SELECT (entity graph); as categorias de todos os animes
+// da lista vêm num único SELECT em lote (hibernate.default_batch_fetch_size).
 @Repository
 public interface UserAnimeRepository extends JpaRepository<UserAnime, Long> {
 
-    List<UserAnime> findByUser(User user);
+    @EntityGraph(attributePaths = "anime")
+    List<UserAnime> findByUserId(Long userId);
 
-    List<UserAnime> findByUserAndStatus(User user, AnimeStatus status);
+    @EntityGraph(attributePaths = "anime")
+    List<UserAnime> findByUserIdAndStatus(Long userId, AnimeStatus status);
 
-    Optional<UserAnime> findByUserAndAnime(User user, Anime anime);
+    Optional<UserAnime> findByUserIdAndAnimeId(Long userId, Long animeId);
 
-    long countByUserAndStatus(User user, AnimeStatus status);
+    long countByUserIdAndStatus(Long userId, AnimeStatus status);
 
     // Método para validar que uma entrada UserAnime pertence a um usuário específico.
     Optional<UserAnime> findByUserIdAndId(Long userId, Long id);
-    @Query("SELECT ua.status, COUNT(ua) FROM UserAnime ua WHERE ua.user.username = :username GROUP BY ua.status")
-    List<Object[]> countAnimesByStatusForUser(@Param("username") String username);
-}
\ No newline at end of file
+    @Query("SELECT ua.status, COUNT(ua) FROM UserAnime ua WHERE ua.user.id = :userId GROUP BY ua.status")
+    List<Object[]> countAnimesByStatusForUser(@Param("userId") Long userId);
+
+    // Quantidade de entradas e última alteração delas, dos seus animes ou das categorias desses animes
+    @Query("SELECT new com.seusanimes.dto.VersaoConteudo(COUNT(DISTINCT ua), " +
+           "greatest(MAX(ua.atualizadoEm), MAX(a.atualizadoEm), MAX(c.atualizadoEm))) " +
+           "FROM UserAnime ua JOIN ua.anime a LEFT JOIN a.categorias c WHERE ua.user.id = :userId")
+    VersaoConteudo versaoDaLista(@Param("userId") Long userId);
+
+    // Quantas listas de usuários contêm cada anime: {animeId, total}
+    @Query("SELECT ua.anime.id, COUNT(ua) FROM UserAnime ua GROUP BY ua.anime.id")
+    List<Object[]> contarPorAnime();
+
+    // Paginação por keyset da lista do usuário, na ordem de inclusão (índice user_id, id)
+    @EntityGraph(attributePaths = "anime")
+    List<UserAnime> findByUserIdAndIdGreaterThanOrderByIdAsc(Long userId, Long id, Limit limite);
+
+    @EntityGraph(attributePaths = "anime")
+    List<UserAnime> findByUserIdAndStatusAndIdGreaterThanOrderByIdAsc(Long userId, AnimeStatus status, Long id, Limit limite);
+}
@@ -2,6 +2,9 @@ package com.seusanimes.repository; // Ajuste o pacote
 
 import com.seusanimes.model.User; // Importa a sua entidade User
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.Optional; // Usado para métodos que podem não encontrar um resultado
 
@@ -18,4 +21,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // por exemplo, para verificar se um username ou email já existe antes de registrar.
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+
+    // Versão da lista de animes do usuário; muda em qualquer escrita em user_animes dele
+    @Modifying
+    @Query("UPDATE User u SET u.listaVersao = coalesce(u.listaVersao, 0) + 1 WHERE u.id = :userId")
+    int incrementarVersaoDaLista(@Param("userId") Long userId);
+
+    @Query("SELECT coalesce(u.listaVersao, 0) FROM User u WHERE u.id = :userId")
+    Optional<Long> buscarVersaoDaLista(@Param("userId") Long userId);
 }
\ No newline at end of file
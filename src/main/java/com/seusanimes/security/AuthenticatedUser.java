@@ -0,0 +1,54 @@
+package com.seusanimes.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Principal de uma requisição autenticada por JWT.
+ * Montado diretamente a partir das claims do token (id, username e roles),
+ * sem carregar a entidade User do banco de dados.
+ */
+public class AuthenticatedUser implements UserDetails {
+
+    private final Long id;
+    private final String username;
+    private final List<GrantedAuthority> authorities;
+
+    public AuthenticatedUser(Long id, String username, Collection<? extends GrantedAuthority> authorities) {
+        this.id = id;
+        this.username = username;
+        this.authorities = List.copyOf(authorities);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    // A senha nunca trafega no token; o principal só existe depois da autenticação
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthenticatedUser{" +
+               "id=" + id +
+               ", username='" + username + '\'' +
+               ", authorities=" + authorities +
+               '}';
+    }
+}
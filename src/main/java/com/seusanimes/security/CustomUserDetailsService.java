@@ -1,13 +1,19 @@
 package com.seusanimes.security; // Ou em outro pacote de segurança que você tenha criado
 
-import com.seusanimes.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.seusanimes.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+
 // Remova esta importação, pois você não usará mais ArrayList diretamente aqui
 // import java.util.ArrayList;
 
@@ -16,20 +22,43 @@ public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
 
+    // Cópias imutáveis dos usuários carregados recentemente (nunca a entidade gerenciada).
+    // Só usuários existentes entram no cache. Nenhum endpoint altera usuários: mudanças feitas direto
+    // no banco (o papel, por exemplo) passam a valer em até app.security.user-cache.ttl.
+    private final Cache<String, UsuarioCadastrado> userCache;
+
     @Autowired
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    ObjectProvider<MeterRegistry> meterRegistry,
+                                    @Value("${app.security.user-cache.max-size:5000}") long maxSize,
+                                    @Value("${app.security.user-cache.ttl:5m}") Duration ttl) {
         this.userRepository = userRepository;
+        this.userCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, userCache, "user.details"));
     }
 
     @Override
-    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        // 1. Tenta encontrar o usuário no seu banco de dados usando o UserRepository
-        User user = userRepository.findByUsername(username)
+    public UsuarioCadastrado loadUserByUsername(String username) throws UsernameNotFoundException {
+        UsuarioCadastrado cached = userCache.getIfPresent(username);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Só os campos usados na autenticação saem da entidade; ela não é guardada
+        UsuarioCadastrado usuario = userRepository.findByUsername(username)
+                .map(UsuarioCadastrado::de)
                 .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado: " + username));
+        userCache.put(username, usuario);
+        return usuario;
+    }
 
-        // 2. RETORNE A PRÓPRIA INSTÂNCIA DO SEU OBJETO USER,
-        // pois ele já implementa UserDetails e tem o método getAuthorities()
-        System.out.println("CustomUserDetailsService: Usuário '" + user.getUsername() + "' carregado. Roles: " + user.getAuthorities()); // DEBUG
-        return user;
+    // Remove o usuário do cache para que a próxima consulta reflita o estado do banco.
+    // Chamado no registro: um username apagado direto no banco e registrado de novo não herda a cópia antiga.
+    public void evictUser(String username) {
+        userCache.invalidate(username);
     }
-}
\ No newline at end of file
+}
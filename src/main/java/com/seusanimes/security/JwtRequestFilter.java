@@ -1,4 +1,5 @@
 package com.seusanimes.security; 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -6,7 +7,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -21,6 +22,10 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtRequestFilter.class);
 
+    // Nessas rotas o papel vem do cadastro (cache de UserDetails, TTL curto), e não das claims:
+    // um ADMIN rebaixado no banco perde o acesso em até app.security.user-cache.ttl, não só quando o token expirar
+    private static final String PREFIXO_ROTAS_ADMINISTRATIVAS = "/api/admin";
+
     private final CustomUserDetailsService userDetailsService;
     private final JwtUtil jwtUtil;
 
@@ -46,6 +51,7 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
         String username = null;
         String jwtToken = null;
+        Claims claims = null;
 
         logger.info("JwtRequestFilter: Recebendo requisição para URI: {}", request.getRequestURI()); // Alterei para info, pois é uma log importante
 
@@ -59,9 +65,12 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
         if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
             jwtToken = requestTokenHeader.substring(7);
-            logger.info("JwtRequestFilter: JWT extraído: {}", jwtToken); // Alterei para info
+            // Nunca o token em si: só o início do SHA-256, o mesmo usado como chave do cache de claims
+            logger.info("JwtRequestFilter: JWT recebido (sha256 {}...)", JwtUtil.identificadorParaLog(jwtToken));
             try {
-                username = jwtUtil.extractUsername(jwtToken);
+                // Assinatura e expiração são verificadas uma única vez aqui (ou servidas do cache)
+                claims = jwtUtil.extractAllClaims(jwtToken);
+                username = claims.getSubject();
                 logger.info("JwtRequestFilter: Username extraído do JWT: {}", username); // Alterei para info
             } catch (Exception e) {
                 logger.error("JwtRequestFilter: Erro ao extrair username ou token inválido/expirado para URI {}: {}", request.getRequestURI(), e.getMessage());
@@ -81,16 +90,32 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         }
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            logger.info("JwtRequestFilter: Tentando carregar UserDetails para username: {}", username); // Alterei para info
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-            logger.info("JwtRequestFilter: UserDetails carregado: {}", userDetails.getUsername()); // Alterei para info
+            // O principal sai das próprias claims (id + roles): nenhuma consulta ao banco por requisição
+            AuthenticatedUser principal = jwtUtil.toAuthenticatedUser(claims);
+            boolean rotaAdministrativa = request.getRequestURI().startsWith(PREFIXO_ROTAS_ADMINISTRATIVAS);
+            if (principal == null || rotaAdministrativa) {
+                // Tokens emitidos antes das claims de id/roles e rotas administrativas: conta e papel via cache de UserDetails
+                logger.info("JwtRequestFilter: Conferindo o cadastro de {} (token sem claims de id/roles ou rota administrativa)", username);
+                UsuarioCadastrado usuario;
+                try {
+                    usuario = this.userDetailsService.loadUserByUsername(username);
+                } catch (UsernameNotFoundException e) {
+                    usuario = null;
+                }
+                if (usuario == null || (principal != null && !usuario.getId().equals(principal.getId()))) {
+                    // Conta removida (ou recriada com outro id) depois da emissão do token: segue sem autenticação
+                    logger.warn("JwtRequestFilter: Token de {} não corresponde a nenhum usuário cadastrado.", username);
+                    filterChain.doFilter(request, response);
+                    return;
+                }
+                principal = new AuthenticatedUser(usuario.getId(), usuario.getUsername(), usuario.getAuthorities());
+            }
 
-            // <<<<<<<<<<<<<<<< SUA CORREÇÃO APLICADA AQUI: Passando userDetails.getUsername() para validateToken >>>>>>>>>>>>>>>>>>
-           if (jwtUtil.validateToken(jwtToken, userDetails.getUsername())) { // CORREÇÃO AQUI // <<-- CORRIGIDO PARA PASSAR UserDetails inteiro ou usar getUsername()
+           if (jwtUtil.validateClaims(claims, principal.getUsername())) { // Reaproveita as claims já verificadas, sem reprocessar o token
                 logger.info("JwtRequestFilter: Token VALIDADO com sucesso para usuário: {}", username); // Alterei para info
 
                 UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
+                        principal, null, principal.getAuthorities());
                 
                 authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 
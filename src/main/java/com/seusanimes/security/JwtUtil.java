@@ -1,21 +1,42 @@
     package com.seusanimes.security; // Ou com.seusanimes.util
 
+    import com.github.benmanes.caffeine.cache.Cache;
+    import com.github.benmanes.caffeine.cache.Caffeine;
+    import com.github.benmanes.caffeine.cache.Expiry;
     import io.jsonwebtoken.Claims;
+    import io.jsonwebtoken.ExpiredJwtException;
+    import io.jsonwebtoken.JwtParser;
     import io.jsonwebtoken.Jwts;
     import io.jsonwebtoken.SignatureAlgorithm;
     import io.jsonwebtoken.security.Keys;
+    import io.micrometer.core.instrument.MeterRegistry;
+    import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+    import jakarta.annotation.PostConstruct;
+    import org.springframework.beans.factory.ObjectProvider;
     import org.springframework.beans.factory.annotation.Value;
+    import org.springframework.security.core.GrantedAuthority;
+    import org.springframework.security.core.authority.SimpleGrantedAuthority;
     import org.springframework.stereotype.Component;
 
+    import java.nio.charset.StandardCharsets;
     import java.security.Key;
+    import java.security.MessageDigest;
+    import java.security.NoSuchAlgorithmException;
+    import java.util.Collection;
     import java.util.Date;
     import java.util.HashMap;
+    import java.util.HexFormat;
+    import java.util.List;
     import java.util.Map;
-    import java.util.function.Function;
+    import java.util.concurrent.TimeUnit;
 
 @Component // Indica que esta classe é um componente Spring
 public class JwtUtil {
 
+    // Claims personalizadas gravadas no token no momento do login
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLES = "roles";
+
     // Chave secreta para assinar e validar o token.
     // É crucial que esta chave seja FORTE e não seja exposta!
     // Puxe de variáveis de ambiente em produção.
@@ -26,48 +47,132 @@ public class JwtUtil {
     @Value("${jwt.expiration:36000000}") // 10 horas em ms
     private long expiration;
 
-    // Converte a string secreta em um objeto Key
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    // Quantidade máxima de tokens já verificados mantidos em memória
+    @Value("${jwt.claims-cache.max-size:10000}")
+    private long claimsCacheMaxSize;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    // Chave e parser são imutáveis e thread-safe: montados uma única vez
+    private Key signingKey;
+    private JwtParser parser;
+
+    // Claims já verificadas (assinatura + expiração), indexadas pelo SHA-256 do token.
+    // Cada entrada expira junto com o próprio token.
+    private Cache<String, Claims> claimsCache;
+
+    public JwtUtil(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
     }
 
-    // Extrair o username do token
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    @PostConstruct
+    void init() {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        this.claimsCache = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        return tempoRestanteEmNanos(claims);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return tempoRestanteEmNanos(claims);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, claimsCache, "jwt.claims"));
+    }
+
+    private static long tempoRestanteEmNanos(Claims claims) {
+        Date exp = claims.getExpiration();
+        if (exp == null) {
+            return 0;
+        }
+        return Math.max(0, TimeUnit.MILLISECONDS.toNanos(exp.getTime() - System.currentTimeMillis()));
     }
 
-    // Extrair a data de expiração do token
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    /**
+     * Verifica o token (assinatura e expiração) e devolve suas claims.
+     * O HMAC só é calculado na primeira vez que o token aparece; as próximas
+     * requisições com o mesmo token custam apenas um hash e uma busca no cache.
+     *
+     * @param token O JWT compacto recebido no header Authorization.
+     * @return As claims verificadas do token.
+     * @throws io.jsonwebtoken.JwtException se o token for inválido ou estiver expirado.
+     */
+    public Claims extractAllClaims(String token) {
+        String chave = digest(token);
+        Claims claims = claimsCache.getIfPresent(chave);
+        if (claims != null) {
+            // O cache expira junto com o token, mas a checagem é barata e evita qualquer janela de corrida
+            if (claims.getExpiration() != null && claims.getExpiration().before(new Date())) {
+                claimsCache.invalidate(chave);
+                throw new ExpiredJwtException(null, claims, "JWT expirado em " + claims.getExpiration());
+            }
+            return claims;
+        }
+        claims = parser.parseClaimsJws(token).getBody();
+        claimsCache.put(chave, claims);
+        return claims;
     }
 
-    // Extrair uma "claim" específica (parte da carga útil do token)
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    // Início do digest, para identificar o token nos logs sem expô-lo
+    static String identificadorParaLog(String token) {
+        return digest(token).substring(0, 12);
     }
 
-    // Extrair todas as "claims" do token
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível na JVM", e);
+        }
     }
 
     // Verificar se o token expirou
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private Boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 
-    // Gerar um token JWT para um determinado username
-    public String generateToken(String username) {
+    // Gerar um token JWT que já carrega o id e as roles do usuário,
+    // permitindo autenticar as próximas requisições sem consultar o banco
+    public String generateToken(Long userId, String username, Collection<? extends GrantedAuthority> authorities) {
         Map<String, Object> claims = new HashMap<>();
-        // Você pode adicionar claims personalizadas aqui, como roles (papéis do usuário)
+        claims.put(CLAIM_USER_ID, userId);
+        claims.put(CLAIM_ROLES, authorities.stream().map(GrantedAuthority::getAuthority).toList());
         return createToken(claims, username);
     }
 
+    /**
+     * Monta o principal autenticado a partir das claims do token.
+     *
+     * @param claims Claims já verificadas.
+     * @return O principal, ou null se o token foi emitido sem id/roles (tokens antigos).
+     */
+    public AuthenticatedUser toAuthenticatedUser(Claims claims) {
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        List<?> roles = claims.get(CLAIM_ROLES, List.class);
+        if (userId == null || roles == null) {
+            return null;
+        }
+        List<GrantedAuthority> authorities = roles.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role.toString()))
+                .toList();
+        return new AuthenticatedUser(userId.longValue(), claims.getSubject(), authorities);
+    }
+
     // Lógica para criar o token
     private String createToken(Map<String, Object> claims, String subject) {
         return Jwts.builder()
@@ -75,13 +180,12 @@ public class JwtUtil {
                 .setSubject(subject) // O assunto (geralmente o username ou ID do usuário)
                 .setIssuedAt(new Date(System.currentTimeMillis())) // Data de emissão
                 .setExpiration(new Date(System.currentTimeMillis() + expiration)) // Data de expiração
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256) // Assinatura com a chave secreta e algoritmo
+                .signWith(signingKey, SignatureAlgorithm.HS256) // Assinatura com a chave secreta e algoritmo
                 .compact(); // Constrói e compacta o token
     }
 
-    // Validar o token
-    public Boolean validateToken(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return (extractedUsername.equals(username) && !isTokenExpired(token));
+    // Validar claims já extraídas, sem reprocessar o token
+    public Boolean validateClaims(Claims claims, String username) {
+        return (claims.getSubject().equals(username) && !isTokenExpired(claims));
     }
-}
\ No newline at end of file
+}
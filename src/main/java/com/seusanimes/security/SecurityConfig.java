@@ -48,16 +48,25 @@ public class SecurityConfig {
             .authorizeHttpRequests(authorize -> authorize
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/animes").authenticated()
+                .requestMatchers(HttpMethod.GET, "/api/animes/cursor").authenticated()
                 .requestMatchers(HttpMethod.GET, "/api/animes/{id}").authenticated()
                 .requestMatchers(HttpMethod.GET, "/api/animes/search").authenticated()
+                .requestMatchers(HttpMethod.GET, "/api/animes/autocomplete").authenticated()
                 .requestMatchers(HttpMethod.GET, "/api/animes/genre/{genre}").authenticated()
+                .requestMatchers(HttpMethod.GET, "/api/animes/generos").authenticated()
+                .requestMatchers(HttpMethod.GET, "/api/animes/facetas").authenticated()
+                .requestMatchers(HttpMethod.GET, "/api/animes/ano/{ano}").authenticated()
+                .requestMatchers(HttpMethod.GET, "/api/animes/anos").authenticated()
                 .requestMatchers(HttpMethod.POST, "/api/animes/buscar-e-salvar").authenticated()
                 .requestMatchers(HttpMethod.POST, "/api/animes/buscar-e-salvar-por-ano").authenticated()
+                .requestMatchers(HttpMethod.GET, "/api/animes/importacoes/{jobId}").authenticated()
                 .requestMatchers(HttpMethod.POST, "/api/animes").authenticated()
+                .requestMatchers(HttpMethod.POST, "/api/animes/lote").authenticated()
                 .requestMatchers(HttpMethod.POST, "/api/user-animes").authenticated()
                 .requestMatchers(HttpMethod.GET, "/api/user-animes").authenticated()
                 .requestMatchers(HttpMethod.PUT, "/api/user-animes/**").authenticated()
                 .requestMatchers(HttpMethod.DELETE, "/api/user-animes/**").authenticated()
+                .requestMatchers("/api/admin/**").hasRole("ADMIN")
                 .anyRequest().authenticated()
             )
             .sessionManagement(session -> session
@@ -0,0 +1,70 @@
+package com.seusanimes.security;
+
+import com.seusanimes.model.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Cópia imutável de um usuário do banco (id, username, hash da senha e papel), como o
+ * CustomUserDetailsService a mantém em cache. Diferente da entidade User, pode ser
+ * compartilhada entre requisições e threads sem arrastar um contexto de persistência.
+ */
+public final class UsuarioCadastrado implements UserDetails {
+
+    private final Long id;
+    private final String username;
+    private final String password;
+    private final String role;
+    private final List<GrantedAuthority> authorities;
+
+    private UsuarioCadastrado(Long id, String username, String password, String role,
+                              Collection<? extends GrantedAuthority> authorities) {
+        this.id = id;
+        this.username = username;
+        this.password = password;
+        this.role = role;
+        this.authorities = List.copyOf(authorities);
+    }
+
+    public static UsuarioCadastrado de(User user) {
+        return new UsuarioCadastrado(user.getId(), user.getUsername(), user.getPassword(), user.getRole(),
+                user.getAuthorities());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    // Papel sem o prefixo "ROLE_" (nulo em registros antigos = USER)
+    public String getRole() {
+        return role;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    // O hash da senha fica fora: o principal pode acabar em logs
+    @Override
+    public String toString() {
+        return "UsuarioCadastrado{" +
+               "id=" + id +
+               ", username='" + username + '\'' +
+               ", authorities=" + authorities +
+               '}';
+    }
+}
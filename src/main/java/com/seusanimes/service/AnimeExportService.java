@@ -0,0 +1,103 @@
+package com.seusanimes.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seusanimes.dto.AnimeExportacao;
+import com.seusanimes.model.Anime;
+import com.seusanimes.repository.AnimeRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Exportação do catálogo inteiro em NDJSON (um anime por linha, em ordem de id).
+ *
+ * Os animes vêm de um cursor do servidor (AnimeRepository.streamPorIdDepoisDe) e são escritos em lotes
+ * do tamanho do fetch: as categorias do lote saem de uma única consulta à tabela de junção, com os nomes
+ * resolvidos no CategoriaRegistry, e cada anime é desanexado assim que escrito. A memória usada
+ * depende do tamanho do lote, não do tamanho do catálogo.
+ */
+@Service
+public class AnimeExportService {
+
+    private final AnimeRepository animeRepository;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final CategoriaRegistry categoriaRegistry;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public AnimeExportService(AnimeRepository animeRepository, NamedParameterJdbcTemplate namedJdbcTemplate,
+                              CategoriaRegistry categoriaRegistry, EntityManager entityManager,
+                              ObjectMapper objectMapper) {
+        this.animeRepository = animeRepository;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.categoriaRegistry = categoriaRegistry;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Escreve os animes com id maior que depoisDe. Para retomar uma exportação interrompida,
+     * chame de novo com o id da última linha recebida.
+     *
+     * @return Quantidade de animes escritos.
+     */
+    @Transactional(readOnly = true)
+    public long exportarNdjson(long depoisDe, OutputStream saida) throws IOException {
+        long escritos = 0;
+        try (Stream<Anime> animes = animeRepository.streamPorIdDepoisDe(depoisDe);
+             JsonGenerator gerador = objectMapper.createGenerator(saida)) {
+            // A saída é da resposta HTTP: quem a abriu é quem fecha
+            gerador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            gerador.setRootValueSeparator(null); // cada linha termina com '\n', escrito abaixo
+            Iterator<Anime> cursor = animes.iterator();
+            List<Anime> lote = new ArrayList<>(AnimeRepository.TAMANHO_LOTE_EXPORTACAO);
+            while (cursor.hasNext()) {
+                lote.add(cursor.next());
+                if (lote.size() == AnimeRepository.TAMANHO_LOTE_EXPORTACAO || !cursor.hasNext()) {
+                    escritos += escreverLote(lote, gerador);
+                    lote.clear();
+                    gerador.flush();
+                }
+            }
+        }
+        return escritos;
+    }
+
+    private int escreverLote(List<Anime> lote, JsonGenerator gerador) throws IOException {
+        Map<Long, List<String>> categorias = categoriasDoLote(lote);
+        for (Anime anime : lote) {
+            gerador.writeObject(new AnimeExportacao(anime.getId(), anime.getMalId(), anime.getTitulo(), anime.getSinopse(),
+                    anime.getEpisodios(), anime.getImagemUrl(), anime.getStatus(), anime.getAnoLancamento(), anime.getAno(),
+                    anime.getTemporada() != null ? anime.getTemporada().name() : null, anime.getAtualizadoEm(),
+                    categorias.getOrDefault(anime.getId(), List.of())));
+            gerador.writeRaw('\n');
+            entityManager.detach(anime);
+        }
+        return lote.size();
+    }
+
+    // Sem tocar em anime.getCategorias(): isso faria uma consulta por anime (e anexaria as coleções ao contexto)
+    private Map<Long, List<String>> categoriasDoLote(List<Anime> lote) {
+        Map<Long, List<String>> porAnime = new HashMap<>();
+        namedJdbcTemplate.query("SELECT anime_id, categoria_id FROM anime_categoria WHERE anime_id IN (:ids)",
+                new MapSqlParameterSource("ids", lote.stream().map(Anime::getId).toList()),
+                rs -> {
+                    long animeId = rs.getLong("anime_id");
+                    categoriaRegistry.buscarPorId(rs.getLong("categoria_id")).ifPresent(ref ->
+                            porAnime.computeIfAbsent(animeId, id -> new ArrayList<>()).add(ref.nome()));
+                });
+        return porAnime;
+    }
+}
@@ -1,178 +1,256 @@
 package com.seusanimes.service;
 
+import com.seusanimes.dto.JikanAnime;
+import com.seusanimes.dto.JikanPagina;
+import com.seusanimes.event.AnimeAlteradoEvent;
 import com.seusanimes.model.Anime;
-import com.seusanimes.model.Categoria;
 import com.seusanimes.repository.AnimeRepository;
-import com.seusanimes.repository.CategoriaRepository;
+import com.seusanimes.repository.AnimeUpsertRepository;
+import com.seusanimes.repository.CacheSegundoNivel;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class AnimeExternalService {
 
+    private static final Logger logger = LoggerFactory.getLogger(AnimeExternalService.class);
+
     private final RestTemplate restTemplate;
     private final AnimeRepository animeRepository;
-    private final CategoriaRepository categoriaRepository;
+    private final CategoriaRegistry categoriaRegistry;
+    private final AnimeUpsertRepository animeUpsertRepository;
+    private final JikanAnimeParser jikanAnimeParser;
+    private final JikanRateLimiter rateLimiter;
+    private final TransactionTemplate transactionTemplate;
+    private final JikanBuscaCache jikanBuscaCache;
+    private final AnimeService animeService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheSegundoNivel cacheSegundoNivel;
+    private final CatalogoIndex catalogoIndex;
 
     @Value("${app.external.api.enabled:true}")
     private boolean isApiEnabled;
 
-    public AnimeExternalService(RestTemplate restTemplate, AnimeRepository animeRepository, CategoriaRepository categoriaRepository) {
+    public AnimeExternalService(@Qualifier("jikanRestTemplate") RestTemplate restTemplate, AnimeRepository animeRepository, CategoriaRegistry categoriaRegistry,
+                                AnimeUpsertRepository animeUpsertRepository,
+                                JikanAnimeParser jikanAnimeParser, JikanRateLimiter rateLimiter,
+                                TransactionTemplate transactionTemplate, JikanBuscaCache jikanBuscaCache,
+                                AnimeService animeService, ApplicationEventPublisher eventPublisher,
+                                CacheSegundoNivel cacheSegundoNivel, CatalogoIndex catalogoIndex) {
         this.restTemplate = restTemplate;
         this.animeRepository = animeRepository;
-        this.categoriaRepository = categoriaRepository;
+        this.categoriaRegistry = categoriaRegistry;
+        this.animeUpsertRepository = animeUpsertRepository;
+        this.jikanAnimeParser = jikanAnimeParser;
+        this.rateLimiter = rateLimiter;
+        this.transactionTemplate = transactionTemplate;
+        this.jikanBuscaCache = jikanBuscaCache;
+        this.animeService = animeService;
+        this.eventPublisher = eventPublisher;
+        this.cacheSegundoNivel = cacheSegundoNivel;
+        this.catalogoIndex = catalogoIndex;
     }
 
-    private final String EXTERNAL_API_URL = "https://api.jikan.moe/v4/anime";
+    // Relativo a app.external.api.base-url (rootUri do jikanRestTemplate)
+    private final String EXTERNAL_API_URL = "/anime";
 
-    @SuppressWarnings("unchecked")
-    private Anime processAndSaveAnimeData(Map<String, Object> animeData) {
-        String titulo = (String) animeData.get("title");
-        List<Anime> existingAnimes = animeRepository.findByTituloContainingIgnoreCase(titulo);
-        if (!existingAnimes.isEmpty()) {
-            System.out.println("Anime '" + titulo + "' já existe no banco de dados. Pulando importação.");
-            return existingAnimes.get(0);
-        }
+    // Buscas por título em andamento, agrupadas pelo título normalizado
+    private final SingleFlight<String, Optional<Anime>> buscasEmAndamento = new SingleFlight<>();
 
-        Anime anime = new Anime();
-        anime.setTitulo(titulo);
-        anime.setSinopse((String) animeData.get("synopsis"));
-        anime.setEpisodios((Integer) animeData.get("episodes"));
+    // Tentativas extras quando a Jikan responde 429 (limite de requisições excedido)
+    private static final int MAX_TENTATIVAS_429 = 3;
 
-        Map<String, Object> images = (Map<String, Object>) animeData.get("images");
-        if (images != null && images.containsKey("jpg")) {
-            Map<String, Object> jpgImages = (Map<String, Object>) images.get("jpg");
-            if (jpgImages != null) {
-                anime.setImagemUrl((String) jpgImages.get("image_url"));
-            }
+    public void verificarApiHabilitada() {
+        if (!isApiEnabled) {
+            logger.warn("Importação da API externa desabilitada. Recusando requisição.");
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "A importação de dados da API externa está desabilitada.");
         }
+    }
 
-        anime.setStatus((String) animeData.get("status"));
-
-        Map<String, Object> airedMap = (Map<String, Object>) animeData.get("aired");
-        if (airedMap != null && airedMap.containsKey("from")) {
-            String airedString = (String) airedMap.get("from");
-            if (airedString != null && !airedString.isEmpty()) {
-                try {
-                    LocalDate airedDate = LocalDate.parse(airedString.substring(0, 10));
-                    anime.setAnoLancamento(airedDate);
-                } catch (DateTimeParseException | StringIndexOutOfBoundsException e) {
-                    try {
-                        String[] parts = airedString.split(" ");
-                        if (parts.length > 0) {
-                            String lastPart = parts[parts.length - 1];
-                            if (lastPart.matches("\\d{4}")) {
-                                Integer year = Integer.parseInt(lastPart);
-                                anime.setAnoLancamento(LocalDate.of(year, 1, 1));
-                            } else {
-                                anime.setAnoLancamento(null);
-                            }
-                        } else {
-                            anime.setAnoLancamento(null);
-                        }
-                    } catch (NumberFormatException ex) {
-                        anime.setAnoLancamento(null);
-                    }
+    // GET na Jikan respeitando o rate limit compartilhado. O corpo volta em bytes:
+    // a conversão fica com o JikanAnimeParser, fora da thread que fez a chamada HTTP.
+    private byte[] getJikan(String url) throws InterruptedException {
+        for (int tentativa = 1; ; tentativa++) {
+            rateLimiter.acquire();
+            try {
+                return restTemplate.getForObject(url, byte[].class);
+            } catch (HttpClientErrorException.TooManyRequests e) {
+                if (tentativa >= MAX_TENTATIVAS_429) {
+                    throw e;
                 }
-            } else {
-                anime.setAnoLancamento(null);
+                logger.warn("API externa retornou 429 para {}. Nova tentativa em {}s.", url, tentativa);
+                TimeUnit.SECONDS.sleep(tentativa);
             }
-        } else {
-            anime.setAnoLancamento(null);
         }
+    }
 
-        List<Map<String, String>> genres = (List<Map<String, String>>) animeData.get("genres");
-        if (genres != null) {
-            for (Map<String, String> genreMap : genres) {
-                String categoryName = genreMap.get("name");
-                if (categoryName != null && !categoryName.isEmpty()) {
-                    Categoria categoria = categoriaRepository.findByNomeIgnoreCase(categoryName)
-                            .orElseGet(() -> categoriaRepository.save(new Categoria(categoryName)));
-                    anime.addCategoria(categoria);
-                }
+    /**
+     * Busca uma página de animes lançados entre o início de anoInicio e o fim de anoFim.
+     *
+     * @param pagina Página da Jikan, começando em 1.
+     * @return O corpo JSON da Jikan (envelope com "pagination" e "data"), ainda não convertido.
+     */
+    public byte[] buscarPaginaPorPeriodo(int anoInicio, int anoFim, int pagina) throws InterruptedException {
+        String url = EXTERNAL_API_URL + "?start_date=" + anoInicio + "-01-01&end_date=" + anoFim + "-12-31&sfw&page=" + pagina;
+        return getJikan(url);
+    }
+
+    /**
+     * Grava um lote de animes da Jikan com upsert por mal_id, junto com suas categorias.
+     *
+     * As categorias são resolvidas antes de abrir a transação do lote: categorias novas são criadas pelo
+     * CategoriaRegistry numa transação própria, e com a do lote já aberta cada importação prenderia duas
+     * conexões do pool ao mesmo tempo. Não deve ser chamado com uma transação em andamento.
+     *
+     * @param animes Animes convertidos da Jikan; os que vierem sem mal_id são ignorados.
+     * @return Mapa de mal_id para o id interno de cada anime gravado.
+     */
+    public Map<Long, Long> salvarLote(List<JikanAnime> animes) {
+        List<JikanAnime> validos = animes.stream()
+                .filter(anime -> anime.malId() != null && anime.titulo() != null)
+                .toList();
+        Map<Long, Set<Long>> categoriasPorMalId = new HashMap<>();
+        for (JikanAnime anime : validos) {
+            // Por id: gêneros que diferem só em maiúsculas caem na mesma categoria
+            Set<Long> categoriaIds = new LinkedHashSet<>();
+            for (String categoryName : anime.generos()) {
+                categoriaIds.add(categoriaRegistry.resolverId(categoryName));
             }
+            categoriasPorMalId.put(anime.malId(), categoriaIds);
         }
+        return transactionTemplate.execute(status -> gravarLote(validos, categoriasPorMalId));
+    }
+
+    private Map<Long, Long> gravarLote(List<JikanAnime> validos, Map<Long, Set<Long>> categoriasPorMalId) {
+        Map<Long, Long> idsPorMalId = animeUpsertRepository.upsert(validos);
+
+        List<Object[]> associacoes = new ArrayList<>();
+        Map<Long, Set<Long>> categoriasPorAnime = new HashMap<>();
+        for (JikanAnime anime : validos) {
+            Long animeId = idsPorMalId.get(anime.malId());
+            Set<Long> categoriaIds = categoriasPorMalId.get(anime.malId());
+            categoriaIds.forEach(categoriaId -> associacoes.add(new Object[]{animeId, categoriaId}));
+            categoriasPorAnime.put(animeId, categoriaIds);
+        }
+        animeUpsertRepository.substituirCategorias(idsPorMalId.values(), associacoes);
+        // O upsert é SQL nativo: o Hibernate não sabe que estes animes mudaram
+        cacheSegundoNivel.evictAnimes(idsPorMalId.values());
+
+        // Entregues aos índices em memória só depois do commit
+        for (JikanAnime anime : validos) {
+            Long animeId = idsPorMalId.get(anime.malId());
+            Integer ano = anime.dataLancamento() != null ? anime.dataLancamento().getYear() : null;
+            Optional<CatalogoIndex.Indexacao> anterior = catalogoIndex.indexacao(animeId);
+            eventPublisher.publishEvent(new AnimeAlteradoEvent(animeId, anime.titulo(), anime.imagemUrl(),
+                    ano, anime.status(), categoriasPorAnime.get(animeId),
+                    anterior.map(CatalogoIndex.Indexacao::ano).orElse(null),
+                    anterior.map(CatalogoIndex.Indexacao::categoriaIds).orElse(null)));
+        }
+        return idsPorMalId;
+    }
 
-        return animeRepository.save(anime);
+    /**
+     * Persiste um único anime vindo da Jikan.
+     *
+     * @return A entidade gravada, com as categorias carregadas; vazio se o anime veio sem mal_id ou sem título
+     *         (o upsert é por mal_id, e salvarLote ignora esses registros).
+     */
+    public Optional<Anime> salvarAnime(JikanAnime animeData) {
+        if (animeData.malId() == null || animeData.titulo() == null) {
+            return Optional.empty();
+        }
+        Long animeId = salvarLote(List.of(animeData)).get(animeData.malId());
+        return Optional.of(transactionTemplate.execute(status ->
+                comCategoriasCarregadas(animeRepository.findById(animeId).orElseThrow())));
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Busca o anime localmente e, se não existir, importa o primeiro resultado da Jikan.
+     * Chamadas simultâneas para o mesmo título (normalizado) compartilham uma única busca e gravação.
+     */
     public Optional<Anime> buscarESalvarAnime(String titulo) {
-        if (!isApiEnabled) {
-            System.err.println("Importação da API externa desabilitada. Recusando requisição.");
-            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "A importação de dados da API externa está desabilitada.");
+        verificarApiHabilitada();
+
+        try {
+            String chave = TituloNormalizer.normalizar(titulo);
+            return buscasEmAndamento.executar(chave, () -> buscarOuImportar(titulo, chave));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Busca na API externa interrompida.", e);
         }
+    }
 
+    private Optional<Anime> buscarOuImportar(String titulo, String chave) {
         try {
-            List<Anime> existingAnimes = animeRepository.findByTituloContainingIgnoreCase(titulo);
-            if (!existingAnimes.isEmpty()) {
-                System.out.println("Anime '" + titulo + "' já existe no banco de dados. Retornando existente.");
-                return Optional.of(existingAnimes.get(0));
+            Optional<Anime> existente = animeService.buscarPrimeiroPorTrechoDoTitulo(titulo);
+            if (existente.isEmpty()) {
+                // Título com erro de digitação: resolve com o anime local mais próximo em vez de importar um duplicado
+                existente = animeService.buscarCorrecaoDeDigitacao(titulo);
+            }
+            if (existente.isPresent()) {
+                logger.info("Anime '{}' já existe no banco de dados. Retornando existente.", titulo);
+                return Optional.of(comCategoriasCarregadas(existente.get()));
             }
 
-            String searchUrl = EXTERNAL_API_URL + "?q=" + titulo + "&sfw";
-            Map<String, Object> response = restTemplate.getForObject(searchUrl, Map.class);
-
-            if (response != null && response.containsKey("data")) {
-                List<Map<String, Object>> dataList = (List<Map<String, Object>>) response.get("data");
+            // Busca já registrada, inclusive "não existe na Jikan", dispensa a chamada HTTP
+            Optional<JikanBuscaCache.BuscaRegistrada> registrada = jikanBuscaCache.buscar(chave);
+            Optional<JikanAnime> resultado;
+            if (registrada.isPresent()) {
+                resultado = registrada.get().resultado();
+            } else {
+                String searchUrl = EXTERNAL_API_URL + "?q=" + titulo + "&sfw";
+                JikanPagina pagina = jikanAnimeParser.parsePagina(getJikan(searchUrl));
+                resultado = pagina.animes().stream().findFirst();
+                jikanBuscaCache.registrar(chave, resultado);
+            }
+            if (resultado.isEmpty()) {
+                return Optional.empty();
+            }
 
-                if (!dataList.isEmpty()) {
-                    Map<String, Object> animeData = dataList.get(0);
-                    return Optional.of(processAndSaveAnimeData(animeData));
-                }
+            JikanAnime animeData = resultado.get();
+            Optional<Anime> jaImportado = animeData.malId() != null ? animeRepository.findByMalId(animeData.malId()) : Optional.empty();
+            if (jaImportado.isPresent()) {
+                return Optional.of(comCategoriasCarregadas(jaImportado.get()));
             }
-            return Optional.empty();
+            // Só a gravação roda em transação: a conexão não fica presa durante a chamada HTTP.
+            // Resultado sem mal_id não tem como ser importado: tratado como não encontrado.
+            return salvarAnime(animeData);
         } catch (HttpClientErrorException.NotFound e) {
-            System.err.println("API externa retornou 404 para o título: " + titulo);
+            logger.warn("API externa retornou 404 para o título: {}", titulo);
+            jikanBuscaCache.registrar(chave, Optional.empty());
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Anime não encontrado na API externa.", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Busca na API externa interrompida.", e);
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.error("Erro ao buscar ou salvar o anime '{}'.", titulo, e);
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Erro ao buscar ou salvar anime por título.", e);
         }
     }
 
-    @SuppressWarnings("unchecked")
-    public List<Anime> buscarESalvarAnimesPorAno(Integer ano) {
-        if (!isApiEnabled) {
-            System.err.println("Importação da API externa desabilitada. Recusando requisição.");
-            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "A importação de dados da API externa está desabilitada.");
-        }
-
-        List<Anime> savedAnimes = new ArrayList<>();
-        try {
-            String url = EXTERNAL_API_URL + "?start_date=" + ano + "-01-01&end_date=" + ano + "-12-31&sfw";
-            Map<String, Object> response = restTemplate.getForObject(url, Map.class);
-
-            if (response != null && response.containsKey("data")) {
-                List<Map<String, Object>> dataList = (List<Map<String, Object>>) response.get("data");
-
-                for (Map<String, Object> animeData : dataList) {
-                    try {
-                        Anime savedAnime = processAndSaveAnimeData(animeData);
-                        savedAnimes.add(savedAnime);
-                    } catch (Exception e) {
-                        System.err.println("Erro ao processar e salvar anime (ID Jikan: " + animeData.get("mal_id") + ", Título: " + animeData.get("title") + "): " + e.getMessage());
-                    }
-                }
-            }
-        } catch (HttpClientErrorException e) {
-            System.err.println("Erro HTTP ao buscar animes por ano " + ano + ": " + e.getStatusCode() + " - " + e.getResponseBodyAsString());
-            throw new ResponseStatusException(e.getStatusCode(), "Erro ao buscar animes por ano na API externa.", e);
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Erro inesperado ao buscar animes por ano.", e);
-        }
-        return savedAnimes;
+    // O resultado é compartilhado com as chamadas agrupadas, que rodam em outras threads:
+    // as categorias são carregadas aqui para ninguém disparar lazy loading na sessão de quem buscou.
+    private static Anime comCategoriasCarregadas(Anime anime) {
+        Hibernate.initialize(anime.getCategorias());
+        return anime;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,234 @@
+package com.seusanimes.service;
+
+import com.seusanimes.dto.JikanAnime;
+import com.seusanimes.dto.JikanPagina;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Importação assíncrona de animes da API Jikan por período de lançamento.
+ *
+ * Cada job roda em três estágios ligados por filas limitadas (backpressure):
+ * busca paginada (sob o rate limit compartilhado) -> conversão -> gravação em lotes.
+ * No máximo app.import.max-jobs-em-andamento jobs rodam ao mesmo tempo; cada um ocupa uma conexão
+ * do pool na gravação e divide o mesmo rate limit da Jikan, então mais jobs não importam mais rápido.
+ */
+@Service
+public class AnimeImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnimeImportService.class);
+
+    // Recusa de um novo job enquanto o limite de jobs em andamento estiver atingido
+    public static class LimiteDeImportacoesException extends RuntimeException {
+        private final ImportJob emAndamento;
+
+        LimiteDeImportacoesException(ImportJob emAndamento) {
+            super("Limite de importações simultâneas atingido; job em andamento: " + emAndamento.getId());
+            this.emAndamento = emAndamento;
+        }
+
+        public ImportJob getEmAndamento() {
+            return emAndamento;
+        }
+    }
+
+    // Marcadores de fim de fluxo entre os estágios (comparados por identidade)
+    private static final byte[] FIM_PAGINAS = new byte[0];
+    private static final JikanAnime FIM_ANIMES = new JikanAnime(null, null, null, null, null, null, null, List.of());
+
+    // Jobs finalizados continuam consultáveis até o registro atingir este tamanho; daí saem os mais antigos
+    private static final int MAX_JOBS_REGISTRADOS = 100;
+
+    private final AnimeExternalService animeExternalService;
+    private final JikanAnimeParser jikanAnimeParser;
+
+    // Os estágios passam a maior parte do tempo bloqueados (rate limit, filas, banco): threads virtuais
+    private final SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("jikan-import-");
+    // Em ordem de criação; acessos sincronizados no próprio mapa
+    private final Map<String, ImportJob> jobs = new LinkedHashMap<>();
+
+    @Value("${app.import.batch-size:25}")
+    private int tamanhoLote;
+
+    @Value("${app.import.page-queue-capacity:4}")
+    private int capacidadeFilaPaginas;
+
+    @Value("${app.import.anime-queue-capacity:100}")
+    private int capacidadeFilaAnimes;
+
+    @Value("${app.import.max-jobs-em-andamento:2}")
+    private int maxJobsEmAndamento;
+
+    public AnimeImportService(AnimeExternalService animeExternalService,
+                              JikanAnimeParser jikanAnimeParser) {
+        this.animeExternalService = animeExternalService;
+        this.jikanAnimeParser = jikanAnimeParser;
+        this.executor.setVirtualThreads(true);
+    }
+
+    /**
+     * Agenda a importação de todos os animes lançados entre anoInicio e anoFim (inclusive).
+     *
+     * @return O job criado; o progresso pode ser consultado por {@link #buscarJob(String)}.
+     * @throws LimiteDeImportacoesException se já houver app.import.max-jobs-em-andamento jobs rodando.
+     */
+    public ImportJob iniciarImportacao(int anoInicio, int anoFim) {
+        animeExternalService.verificarApiHabilitada();
+        if (anoInicio > anoFim) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O ano inicial deve ser menor ou igual ao ano final.");
+        }
+
+        ImportJob job = new ImportJob(anoInicio, anoFim);
+        registrar(job);
+
+        BlockingQueue<byte[]> paginas = new ArrayBlockingQueue<>(capacidadeFilaPaginas);
+        BlockingQueue<JikanAnime> animes = new ArrayBlockingQueue<>(capacidadeFilaAnimes);
+
+        job.iniciar();
+        logger.info("Importação {} iniciada: animes de {} a {}.", job.getId(), anoInicio, anoFim);
+        executor.execute(() -> etapaBusca(job, paginas));
+        executor.execute(() -> etapaConversao(job, paginas, animes));
+        executor.execute(() -> etapaGravacao(job, animes));
+        return job;
+    }
+
+    public Optional<ImportJob> buscarJob(String jobId) {
+        synchronized (jobs) {
+            return Optional.ofNullable(jobs.get(jobId));
+        }
+    }
+
+    private void registrar(ImportJob job) {
+        synchronized (jobs) {
+            List<ImportJob> emAndamento = jobs.values().stream().filter(registrado -> !registrado.isFinalizado()).toList();
+            if (emAndamento.size() >= maxJobsEmAndamento) {
+                throw new LimiteDeImportacoesException(emAndamento.get(0));
+            }
+            // Os em andamento nunca passam do limite acima, então sempre há finalizados para descartar
+            Iterator<ImportJob> maisAntigos = jobs.values().iterator();
+            while (jobs.size() >= MAX_JOBS_REGISTRADOS && maisAntigos.hasNext()) {
+                if (maisAntigos.next().isFinalizado()) {
+                    maisAntigos.remove();
+                }
+            }
+            jobs.put(job.getId(), job);
+        }
+    }
+
+    // 1. BUSCA: segue a paginação da Jikan até a última página
+    private void etapaBusca(ImportJob job, BlockingQueue<byte[]> paginas) {
+        try {
+            int pagina = 1;
+            boolean temProxima = true;
+            while (temProxima) {
+                byte[] response = animeExternalService.buscarPaginaPorPeriodo(job.getAnoInicio(), job.getAnoFim(), pagina);
+                job.paginasBuscadas.incrementAndGet();
+                temProxima = jikanAnimeParser.temProximaPagina(response);
+                if (response != null) {
+                    paginas.put(response);
+                }
+                pagina++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.marcarFalhaNaBusca("Busca interrompida.");
+        } catch (Exception e) {
+            logger.error("Erro ao buscar animes de {} a {}: {}", job.getAnoInicio(), job.getAnoFim(), e.getMessage());
+            job.marcarFalhaNaBusca("Erro ao buscar página na API externa: " + e.getMessage());
+        } finally {
+            enviarFim(paginas, FIM_PAGINAS);
+        }
+    }
+
+    // 2. CONVERSÃO: JSON bruto -> JikanAnime, em streaming (JikanAnimeParser)
+    private void etapaConversao(ImportJob job, BlockingQueue<byte[]> paginas, BlockingQueue<JikanAnime> animes) {
+        try {
+            while (true) {
+                byte[] response = paginas.take();
+                if (response == FIM_PAGINAS) {
+                    break;
+                }
+                try {
+                    JikanPagina pagina = jikanAnimeParser.parsePagina(response);
+                    for (JikanAnime anime : pagina.animes()) {
+                        job.animesLidos.incrementAndGet();
+                        animes.put(anime);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    job.registrarErro("Erro ao converter página da API externa: " + e.getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            enviarFim(animes, FIM_ANIMES);
+        }
+    }
+
+    // 3. GRAVAÇÃO: acumula até tamanhoLote animes e grava cada lote com upsert em batch, numa transação
+    private void etapaGravacao(ImportJob job, BlockingQueue<JikanAnime> animes) {
+        try {
+            boolean fim = false;
+            while (!fim) {
+                List<JikanAnime> lote = new ArrayList<>(tamanhoLote);
+                lote.add(animes.take());
+                animes.drainTo(lote, tamanhoLote - 1);
+                fim = lote.removeIf(anime -> anime == FIM_ANIMES);
+                if (!lote.isEmpty()) {
+                    gravarLote(job, lote);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.registrarErro("Gravação interrompida.");
+        } finally {
+            job.finalizar(job.isBuscaFalhou());
+            logger.info("Importação {} finalizada: {}", job.getId(), job.toResponse());
+        }
+    }
+
+    private void gravarLote(ImportJob job, List<JikanAnime> lote) {
+        try {
+            job.registrosGravados.addAndGet(animeExternalService.salvarLote(lote).size());
+        } catch (RuntimeException e) {
+            // Um registro problemático (ex.: título repetido com outro mal_id) não deve descartar o lote inteiro
+            for (JikanAnime anime : lote) {
+                try {
+                    job.registrosGravados.addAndGet(animeExternalService.salvarLote(List.of(anime)).size());
+                } catch (RuntimeException ex) {
+                    job.registrarErro("Erro ao salvar anime (ID Jikan: " + anime.malId() + ", Título: " + anime.titulo() + "): " + ex.getMessage());
+                }
+            }
+        }
+    }
+
+    private static <T> void enviarFim(BlockingQueue<T> fila, T marcador) {
+        boolean interrompido = Thread.interrupted();
+        while (true) {
+            try {
+                fila.put(marcador);
+                break;
+            } catch (InterruptedException e) {
+                interrompido = true;
+            }
+        }
+        if (interrompido) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
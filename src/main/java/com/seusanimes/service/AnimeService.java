@@ -1,23 +1,96 @@
 package com.seusanimes.service;
 
+import com.seusanimes.dto.CatalogoFacetadoResponse;
+import com.seusanimes.dto.CursorPage;
+import com.seusanimes.dto.LoteAnimesResponse;
+import com.seusanimes.dto.VersaoConteudo;
+import com.seusanimes.event.AnimeAlteradoEvent;
+import com.seusanimes.event.AnimeRemovidoEvent;
 import com.seusanimes.model.Anime;
+import com.seusanimes.model.Categoria;
+import com.seusanimes.model.Temporada;
 import com.seusanimes.repository.AnimeRepository;
+import com.seusanimes.repository.ProjecaoRepository;
+import jakarta.persistence.EntityManager;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class AnimeService {
 
+    private static final Logger logger = LoggerFactory.getLogger(AnimeService.class);
+
     private final AnimeRepository animeRepository;
+    private final CategoriaRegistry categoriaRegistry;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FuzzyTituloIndex fuzzyTituloIndex;
+    private final CatalogoIndex catalogoIndex;
+    private final ProjecaoRepository projecaoRepository;
+    private final EntityManager entityManager;
+
+    // Gravação em lote: flush + clear a cada 500 animes (10 batches JDBC de hibernate.jdbc.batch_size=50),
+    // para o contexto de persistência não crescer com o tamanho do lote
+    private static final int TAMANHO_LOTE_GRAVACAO = 500;
+    public static final int MAX_ANIMES_POR_LOTE = 10_000;
+
+    // Resultados aproximados são poucos e já vêm ordenados do índice em memória
+    private static final int MAX_RESULTADOS_APROXIMADOS = 50;
+
+    // Definido no startup: sem a extensão pg_trgm a busca por título cai para o ILIKE sem ranking
+    private volatile boolean trigramasDisponiveis;
 
     @Autowired
-    public AnimeService(AnimeRepository animeRepository) {
+    public AnimeService(AnimeRepository animeRepository, CategoriaRegistry categoriaRegistry, JdbcTemplate jdbcTemplate,
+                        ApplicationEventPublisher eventPublisher, FuzzyTituloIndex fuzzyTituloIndex,
+                        CatalogoIndex catalogoIndex, ProjecaoRepository projecaoRepository, EntityManager entityManager) {
         this.animeRepository = animeRepository;
+        this.categoriaRegistry = categoriaRegistry;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.fuzzyTituloIndex = fuzzyTituloIndex;
+        this.catalogoIndex = catalogoIndex;
+        this.projecaoRepository = projecaoRepository;
+        this.entityManager = entityManager;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void verificarTrigramas() {
+        try {
+            trigramasDisponiveis = Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM pg_extension WHERE extname = 'pg_trgm')", Boolean.class));
+        } catch (DataAccessException e) {
+            trigramasDisponiveis = false;
+        }
+        if (!trigramasDisponiveis) {
+            logger.warn("AnimeService: extensão pg_trgm indisponível; busca por título sem ranking de similaridade.");
+        }
     }
 
     // 1. BUSCA GERAL (PAGINADO)
@@ -25,53 +98,334 @@ public class AnimeService {
         return animeRepository.findAll(pageable);
     }
 
+    // 1.1 BUSCA GERAL só com os campos pedidos em ?fields= (tuplas, sem entidades)
+    public Page<Map<String, Object>> findAll(List<String> campos, Pageable pageable) {
+        return projecaoRepository.listarAnimes(campos, pageable);
+    }
+
     // 2. BUSCA POR ID
     public Optional<Anime> findById(Long id) {
         return animeRepository.findById(id);
     }
 
-    // 3. BUSCA POR ANO DE LANÇAMENTO (PAGINADO)
-    public Page<Anime> findByAnoLancamento(Integer ano, Pageable pageable) {
-        // Agora o Service chama o Repository com os dois argumentos
-        return animeRepository.findByAnoLancamento(ano, pageable);
+    // 3. BUSCA POR ANO DE LANÇAMENTO (PAGINADO), opcionalmente só uma temporada
+    public Page<Anime> findByAnoLancamento(Integer ano, Temporada temporada, Pageable pageable) {
+        return temporada != null
+                ? animeRepository.findByAnoAndTemporada(ano, temporada, pageable)
+                : animeRepository.findByAno(ano, pageable);
+    }
+
+    // 3.1 BUSCA POR INTERVALO DE ANOS (inclusivo), opcionalmente só uma temporada
+    public Page<Anime> findByIntervaloDeAnos(Integer anoInicio, Integer anoFim, Temporada temporada, Pageable pageable) {
+        return temporada != null
+                ? animeRepository.findByAnoBetweenAndTemporada(anoInicio, anoFim, temporada, pageable)
+                : animeRepository.findByAnoBetween(anoInicio, anoFim, pageable);
+    }
+
+    // 1.1 CATÁLOGO POR CURSOR (keyset): ordem "titulo" (padrão, como em GET /api/animes) ou "id".
+    // Cada fatia custa o mesmo, seja a primeira ou a milésima.
+    public CursorPage<Anime> listarPorCursor(String cursor, int tamanho, String ordem) {
+        // Um item a mais só para saber se existe próxima fatia
+        int limite = tamanho + 1;
+        List<Anime> animes;
+        if ("id".equals(ordem)) {
+            long depoisDe = cursor == null ? 0L : KeysetCursor.decodificar(cursor, "id", 1).numero(0);
+            animes = animeRepository.findByIdGreaterThanOrderByIdAsc(depoisDe, Limit.of(limite));
+        } else if ("titulo".equals(ordem)) {
+            if (cursor == null) {
+                animes = animeRepository.primeirosPorTitulo(limite);
+            } else {
+                String depoisDe = KeysetCursor.decodificar(cursor, "titulo", 1).texto(0);
+                animes = animeRepository.proximosPorTitulo(depoisDe, limite);
+            }
+        } else {
+            throw new IllegalArgumentException("Ordenação não suportada: " + ordem + " (use titulo ou id).");
+        }
+
+        boolean temMais = animes.size() > tamanho;
+        List<Anime> fatia = temMais ? animes.subList(0, tamanho) : animes;
+        String proximoCursor = null;
+        if (temMais) {
+            Anime ultimo = fatia.get(fatia.size() - 1);
+            proximoCursor = "id".equals(ordem)
+                    ? KeysetCursor.codificar("id", ultimo.getId())
+                    : KeysetCursor.codificar("titulo", ultimo.getTitulo());
+        }
+        return new CursorPage<>(List.copyOf(fatia), proximoCursor, temMais);
+    }
+
+    // 4. BUSCA POR TÍTULO (PAGINADA, ORDENADA POR RELEVÂNCIA)
+    public Page<Anime> buscarPorTitulo(String termo, Pageable pageable) {
+        // A ordenação é sempre a da relevância; só página e tamanho vêm do cliente
+        Pageable pagina = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        String padrao = padraoContendo(termo.trim());
+        Page<Anime> resultado = trigramasDisponiveis
+                ? animeRepository.buscarPorTituloRanqueado(termo.trim(), padrao, pagina)
+                : animeRepository.buscarPorTrechoDoTitulo(padrao, pagina);
+        if (resultado.getTotalElements() > 0) {
+            return resultado;
+        }
+        // Nada no banco: tenta o índice tolerante a erros de digitação
+        List<Anime> aproximados = buscarPorTituloAproximado(termo, MAX_RESULTADOS_APROXIMADOS);
+        int inicio = (int) Math.min(pagina.getOffset(), aproximados.size());
+        int fim = Math.min(inicio + pagina.getPageSize(), aproximados.size());
+        return new PageImpl<>(aproximados.subList(inicio, fim), pagina, aproximados.size());
+    }
+
+    // Mesma busca só com os campos pedidos: a consulta ranqueada devolve os ids, e as colunas vêm numa projeção
+    public Page<Map<String, Object>> buscarPorTitulo(String termo, List<String> campos, Pageable pageable) {
+        Pageable pagina = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        String padrao = padraoContendo(termo.trim());
+        Page<Long> ids = trigramasDisponiveis
+                ? animeRepository.buscarIdsPorTituloRanqueado(termo.trim(), padrao, pagina)
+                : animeRepository.buscarIdsPorTrechoDoTitulo(padrao, pagina);
+        if (ids.getTotalElements() > 0) {
+            return new PageImpl<>(projecaoRepository.animesPorIds(campos, ids.getContent()), pagina, ids.getTotalElements());
+        }
+        List<Long> aproximados = fuzzyTituloIndex.buscar(termo, MAX_RESULTADOS_APROXIMADOS).stream()
+                .map(FuzzyTituloIndex.Correspondencia::animeId)
+                .toList();
+        int inicio = (int) Math.min(pagina.getOffset(), aproximados.size());
+        int fim = Math.min(inicio + pagina.getPageSize(), aproximados.size());
+        return new PageImpl<>(projecaoRepository.animesPorIds(campos, aproximados.subList(inicio, fim)), pagina, aproximados.size());
+    }
+
+    /**
+     * O anime local que quase certamente é o que o usuário quis digitar.
+     * Mais restrito que a busca aproximada: no máximo uma edição a cada 8 letras, para que
+     * títulos parecidos mas diferentes ("Boruto" x "Naruto") não impeçam uma importação legítima.
+     */
+    public Optional<Anime> buscarCorrecaoDeDigitacao(String termo) {
+        int maxEdicoes = Math.max(1, TituloNormalizer.normalizarPalavras(termo).length() / 8);
+        return fuzzyTituloIndex.buscar(termo, 1).stream()
+                .filter(correspondencia -> correspondencia.distancia() <= maxEdicoes)
+                .findFirst()
+                .flatMap(correspondencia -> animeRepository.findById(correspondencia.animeId()));
+    }
+
+    // Animes locais com título a poucas edições do termo, do mais próximo ao mais distante
+    public List<Anime> buscarPorTituloAproximado(String termo, int limite) {
+        return carregarNaOrdem(fuzzyTituloIndex.buscar(termo, limite).stream()
+                .map(FuzzyTituloIndex.Correspondencia::animeId)
+                .toList());
     }
 
-    // 4. BUSCA POR TÍTULO
-    public List<Anime> findByTituloContainingIgnoreCase(String titulo) {
-        return animeRepository.findByTituloContainingIgnoreCase(titulo);
+    // Anime local cujo título contém o trecho (o mais curto, isto é, o mais próximo do trecho)
+    public Optional<Anime> buscarPrimeiroPorTrechoDoTitulo(String trecho) {
+        return animeRepository.buscarPorTrechoDoTitulo(padraoContendo(trecho.trim()), PageRequest.of(0, 1))
+                .stream()
+                .findFirst();
+    }
+
+    // Escapa os curingas do LIKE para que o termo seja procurado literalmente
+    static String padraoContendo(String termo) {
+        String escapado = termo.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return "%" + escapado + "%";
     }
 
     // 5. BUSCA POR GÊNERO/CATEGORIA
     public List<Anime> findAnimesByGenre(String categoria) {
-        return animeRepository.findByCategorias_NomeContainingIgnoreCase(categoria);
+        return carregarNaOrdem(idsPorGenero(categoria));
+    }
+
+    public List<Map<String, Object>> findAnimesByGenre(String categoria, List<String> campos) {
+        return projecaoRepository.animesPorIds(campos, idsPorGenero(categoria));
+    }
+
+    // Os nomes são resolvidos em memória e os ids dos animes vêm do índice de bitmaps
+    private List<Long> idsPorGenero(String categoria) {
+        List<Long> categoriaIds = categoriaRegistry.idsContendo(categoria);
+        if (categoriaIds.isEmpty()) {
+            return List.of();
+        }
+        RoaringBitmap ids = catalogoIndex.filtrar(new CatalogoIndex.Filtro(List.of(), categoriaIds, List.of(), null, null));
+        return CatalogoIndex.pagina(ids, 0, ids.getCardinality());
+    }
+
+    /**
+     * 5.1 FILTRO COMBINADO POR GÊNEROS: todos de "incluir", ao menos um de "qualquer", nenhum de "excluir",
+     * opcionalmente num intervalo de anos. Nomes de categoria sem diferenciar maiúsculas; resultado em ordem de id.
+     */
+    public Page<Anime> buscarPorGeneros(List<String> incluir, List<String> qualquer, List<String> excluir,
+                                        Integer anoInicio, Integer anoFim, Pageable pageable) {
+        Pageable pagina = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        Optional<CatalogoIndex.Filtro> filtro = montarFiltro(incluir, qualquer, excluir, anoInicio, anoFim, null);
+        if (filtro.isEmpty()) {
+            return Page.empty(pagina);
+        }
+        RoaringBitmap ids = catalogoIndex.filtrar(filtro.get());
+        List<Anime> animes = carregarNaOrdem(CatalogoIndex.pagina(ids, pagina.getOffset(), pagina.getPageSize()));
+        return new PageImpl<>(animes, pagina, ids.getCardinality());
+    }
+
+    /**
+     * 5.2 BUSCA FACETADA: mesmos filtros de buscarPorGeneros (mais status) e, junto com a página,
+     * as contagens por gênero, ano e status de todo o resultado, calculadas em memória numa única passada.
+     */
+    public CatalogoFacetadoResponse buscarFacetado(List<String> incluir, List<String> qualquer, List<String> excluir,
+                                                   Integer anoInicio, Integer anoFim, String status, Pageable pageable) {
+        Optional<CatalogoIndex.Filtro> filtro = montarFiltro(incluir, qualquer, excluir, anoInicio, anoFim, status);
+        if (filtro.isEmpty()) {
+            return new CatalogoFacetadoResponse(List.of(), 0, pageable.getPageNumber(), pageable.getPageSize(),
+                    Map.of(), Map.of(), Map.of());
+        }
+        RoaringBitmap ids = catalogoIndex.filtrar(filtro.get());
+        CatalogoIndex.Facetas facetas = catalogoIndex.contarFacetas(ids);
+
+        Map<String, Long> generos = new TreeMap<>();
+        facetas.porCategoria().forEach((categoriaId, total) -> categoriaRegistry.buscarPorId(categoriaId)
+                .ifPresent(categoria -> generos.put(categoria.nome(), total)));
+        List<Anime> animes = carregarNaOrdem(CatalogoIndex.pagina(ids, pageable.getOffset(), pageable.getPageSize()));
+        return new CatalogoFacetadoResponse(animes, ids.getCardinality(), pageable.getPageNumber(), pageable.getPageSize(),
+                generos, facetas.porAno(), new TreeMap<>(facetas.porStatus()));
+    }
+
+    // Vazio quando o filtro não pode casar com nada (categoria exigida que não existe)
+    private Optional<CatalogoIndex.Filtro> montarFiltro(List<String> incluir, List<String> qualquer, List<String> excluir,
+                                                        Integer anoInicio, Integer anoFim, String status) {
+        List<Long> incluirIds = new ArrayList<>();
+        for (String nome : incluir) {
+            Optional<CategoriaRegistry.CategoriaRef> categoria = categoriaRegistry.buscarPorNome(nome);
+            if (categoria.isEmpty()) {
+                // Exigir uma categoria que não existe não deixa nenhum anime passar
+                return Optional.empty();
+            }
+            incluirIds.add(categoria.get().id());
+        }
+        List<Long> qualquerIds = resolverCategorias(qualquer);
+        if (!qualquer.isEmpty() && qualquerIds.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new CatalogoIndex.Filtro(incluirIds, qualquerIds, resolverCategorias(excluir),
+                anoInicio, anoFim, status));
+    }
+
+    private List<Long> resolverCategorias(List<String> nomes) {
+        return nomes.stream()
+                .map(categoriaRegistry::buscarPorNome)
+                .flatMap(Optional::stream)
+                .map(CategoriaRegistry.CategoriaRef::id)
+                .toList();
+    }
+
+    // findAllById não garante a ordem dos ids pedidos; listas grandes são carregadas em blocos
+    private List<Anime> carregarNaOrdem(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Anime> porId = new HashMap<>(ids.size());
+        for (int inicio = 0; inicio < ids.size(); inicio += AnimeRepository.MAX_IDS_POR_CONSULTA) {
+            List<Long> bloco = ids.subList(inicio, Math.min(inicio + AnimeRepository.MAX_IDS_POR_CONSULTA, ids.size()));
+            animeRepository.findAllById(bloco).forEach(anime -> porId.put(anime.getId(), anime));
+        }
+        return ids.stream().map(porId::get).filter(Objects::nonNull).toList();
     }
 
     // 6. SALVAR/ATUALIZAR
     public Anime save(Anime anime) {
-        return animeRepository.save(anime);
+        Anime salvo = animeRepository.save(anime);
+        publicarAlteracao(salvo);
+        return salvo;
     }
 
     // 7. ATUALIZAR (Lógica completa baseada no seu código)
     public Optional<Anime> updateAnime(Long id, Anime animeAtualizado) {
         return animeRepository.findById(id)
                 .map(anime -> {
-                    // Mapeamento dos campos
-                    anime.setTitulo(animeAtualizado.getTitulo());
-                    anime.setSinopse(animeAtualizado.getSinopse());
-                    anime.setEpisodios(animeAtualizado.getEpisodios());
-                    anime.setImagemUrl(animeAtualizado.getImagemUrl());
-                    anime.setStatus(animeAtualizado.getStatus());
-                    anime.setAnoLancamento(animeAtualizado.getAnoLancamento());
-                    if (animeAtualizado.getCategorias() != null) {
-                        anime.getCategorias().clear();
-                        animeAtualizado.getCategorias().forEach(anime::addCategoria);
-                    }
-                    return animeRepository.save(anime);
+                    copiarCampos(animeAtualizado, anime);
+                    Anime salvo = animeRepository.save(anime);
+                    publicarAlteracao(salvo);
+                    return salvo;
                 });
     }
 
+    private static void copiarCampos(Anime origem, Anime destino) {
+        destino.setTitulo(origem.getTitulo());
+        destino.setSinopse(origem.getSinopse());
+        destino.setEpisodios(origem.getEpisodios());
+        destino.setImagemUrl(origem.getImagemUrl());
+        destino.setStatus(origem.getStatus());
+        destino.setAnoLancamento(origem.getAnoLancamento());
+        if (origem.getCategorias() != null) {
+            destino.getCategorias().clear();
+            origem.getCategorias().forEach(destino::addCategoria);
+            // Trocar só as categorias não suja a entidade (nem dispara o @PreUpdate)
+            destino.setAtualizadoEm(Instant.now());
+        }
+    }
+
+    /**
+     * Cria (sem id) ou atualiza (com id) vários animes numa única transação.
+     *
+     * Os ids novos vêm da sequência em blocos, sem ida ao banco por anime, e os inserts em animes e
+     * anime_categoria saem em batches JDBC ordenados por tabela. Os existentes de cada bloco são
+     * carregados com um único findAllById.
+     *
+     * @throws IllegalArgumentException se o lote passar de MAX_ANIMES_POR_LOTE.
+     */
+    @Transactional
+    public LoteAnimesResponse salvarEmLote(List<Anime> animes) {
+        if (animes.size() > MAX_ANIMES_POR_LOTE) {
+            throw new IllegalArgumentException("No máximo " + MAX_ANIMES_POR_LOTE + " animes por lote.");
+        }
+        int criados = 0;
+        int atualizados = 0;
+        List<Long> ids = new ArrayList<>(animes.size());
+        List<Long> naoEncontrados = new ArrayList<>();
+
+        for (int inicio = 0; inicio < animes.size(); inicio += TAMANHO_LOTE_GRAVACAO) {
+            List<Anime> bloco = animes.subList(inicio, Math.min(inicio + TAMANHO_LOTE_GRAVACAO, animes.size()));
+            List<Long> idsParaAtualizar = bloco.stream().map(Anime::getId).filter(Objects::nonNull).toList();
+            Map<Long, Anime> existentes = idsParaAtualizar.isEmpty() ? Map.of()
+                    : animeRepository.findAllById(idsParaAtualizar).stream()
+                            .collect(Collectors.toMap(Anime::getId, Function.identity()));
+
+            List<Anime> gravados = new ArrayList<>(bloco.size());
+            for (Anime dados : bloco) {
+                if (dados.getId() == null) {
+                    entityManager.persist(dados);
+                    gravados.add(dados);
+                    criados++;
+                } else if (existentes.containsKey(dados.getId())) {
+                    Anime anime = existentes.get(dados.getId());
+                    copiarCampos(dados, anime);
+                    gravados.add(anime);
+                    atualizados++;
+                } else {
+                    naoEncontrados.add(dados.getId());
+                }
+            }
+            entityManager.flush();
+            gravados.forEach(anime -> {
+                ids.add(anime.getId());
+                publicarAlteracao(anime);
+            });
+            entityManager.clear();
+        }
+        return new LoteAnimesResponse(criados, atualizados, ids, naoEncontrados);
+    }
+
+    // Versão para requisições condicionais (ETag), sem carregar o anime
+    public VersaoConteudo versao(Long id) {
+        return animeRepository.versao(id);
+    }
+
     // 8. DELETAR POR ID
     public void deleteById(Long id) {
         animeRepository.deleteById(id);
+        eventPublisher.publishEvent(new AnimeRemovidoEvent(id));
+    }
+
+    // Mantém os índices em memória (autocomplete etc.) coerentes com o banco
+    private void publicarAlteracao(Anime anime) {
+        Integer ano = anime.getAnoLancamento() != null ? anime.getAnoLancamento().getYear() : null;
+        Set<Long> categoriaIds = anime.getCategorias() == null ? Set.of() : anime.getCategorias().stream()
+                .map(Categoria::getId)
+                .collect(Collectors.toSet());
+        Optional<CatalogoIndex.Indexacao> anterior = catalogoIndex.indexacao(anime.getId());
+        eventPublisher.publishEvent(new AnimeAlteradoEvent(anime.getId(), anime.getTitulo(), anime.getImagemUrl(), ano,
+                anime.getStatus(), categoriaIds,
+                anterior.map(CatalogoIndex.Indexacao::ano).orElse(null),
+                anterior.map(CatalogoIndex.Indexacao::categoriaIds).orElse(null)));
     }
 }
\ No newline at end of file
@@ -0,0 +1,246 @@
+package com.seusanimes.service;
+
+import com.seusanimes.dto.AnimeSugestao;
+import com.seusanimes.event.AnimeAlteradoEvent;
+import com.seusanimes.event.AnimeRemovidoEvent;
+import com.seusanimes.event.PopularidadeAlteradaEvent;
+import com.seusanimes.repository.AnimeRepository;
+import com.seusanimes.repository.UserAnimeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Índice de prefixos dos títulos para o autocomplete, inteiramente em memória.
+ *
+ * Cada título é normalizado (sem acentos, minúsculo, pontuação como espaço) e indexado a partir
+ * do início de cada palavra: "Shingeki no Kyojin" responde a "shin", "no ky" e "kyo".
+ * As chaves ficam ordenadas num ConcurrentSkipListMap, então um prefixo é um intervalo do mapa.
+ * O ranking é pela popularidade (quantas listas de usuários contêm o anime) e é sempre exato:
+ * prefixos com até app.autocomplete.max-candidatos títulos ranqueiam todos os candidatos do intervalo;
+ * os mais comuns (uma ou duas letras) percorrem os animes em ordem de popularidade, mantida num
+ * conjunto ordenado, até achar as primeiras sugestões que casam.
+ *
+ * Montado no startup e atualizado pelos eventos de anime e de listas de usuários.
+ */
+@Component
+public class AutocompleteIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(AutocompleteIndex.class);
+
+    private record Entrada(Long id, String titulo, String imagemUrl, List<String> chaves) {
+    }
+
+    // Lugar de um anime no ranking. Popularidade e título mudam só por remoção e nova inclusão no conjunto ordenado.
+    private record Posicao(long popularidade, String titulo, Long id) {
+    }
+
+    // Mais popular primeiro; empates pelo título e, por fim, pelo id
+    private static final Comparator<Posicao> RANKING = Comparator.comparingLong(Posicao::popularidade).reversed()
+            .thenComparing(Posicao::titulo)
+            .thenComparing(Posicao::id);
+
+    // Separa a chave do id do anime, para que títulos iguais não colidam no mapa ordenado
+    private static final char SEPARADOR = '\u0000';
+    // Títulos muito longos só são indexados a partir das primeiras palavras
+    private static final int MAX_PALAVRAS_INDEXADAS = 8;
+
+    private final AnimeRepository animeRepository;
+    private final UserAnimeRepository userAnimeRepository;
+
+    private final ConcurrentSkipListMap<String, Long> chaves = new ConcurrentSkipListMap<>();
+    private final Map<Long, Entrada> porId = new ConcurrentHashMap<>();
+    private final Map<Long, Long> popularidade = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Posicao> porPopularidade = new ConcurrentSkipListSet<>(RANKING);
+
+    // Escritas são serializadas (porPopularidade precisa da posição antiga para removê-la); leituras não travam
+    private final Object escrita = new Object();
+
+    // Acima deste número de títulos no intervalo do prefixo, as sugestões saem de porPopularidade
+    private final int maxCandidatos;
+
+    public AutocompleteIndex(AnimeRepository animeRepository, UserAnimeRepository userAnimeRepository,
+                             @Value("${app.autocomplete.max-candidatos:5000}") int maxCandidatos) {
+        this.animeRepository = animeRepository;
+        this.userAnimeRepository = userAnimeRepository;
+        this.maxCandidatos = maxCandidatos;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        for (Object[] linha : userAnimeRepository.contarPorAnime()) {
+            popularidade.put((Long) linha[0], (Long) linha[1]);
+        }
+        List<Object[]> titulos = animeRepository.listarTitulos();
+        for (Object[] linha : titulos) {
+            indexar((Long) linha[0], (String) linha[1], (String) linha[2]);
+        }
+        logger.info("AutocompleteIndex: {} títulos indexados ({} chaves).", titulos.size(), chaves.size());
+    }
+
+    /**
+     * Sugestões para o texto digitado, das mais populares para as menos populares.
+     *
+     * @param texto Início de qualquer palavra do título (ou de uma sequência de palavras).
+     * @param limite Quantidade máxima de sugestões.
+     */
+    public List<AnimeSugestao> sugerir(String texto, int limite) {
+        String prefixo = TituloNormalizer.normalizarPalavras(texto);
+        if (prefixo.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+
+        Set<Long> candidatos = new HashSet<>();
+        NavigableMap<String, Long> intervalo = chaves.subMap(prefixo, true, prefixo + Character.MAX_VALUE, false);
+        for (Long id : intervalo.values()) {
+            candidatos.add(id);
+            if (candidatos.size() > maxCandidatos) {
+                return sugerirPorPopularidade(prefixo, limite);
+            }
+        }
+
+        List<AnimeSugestao> resultado = new ArrayList<>();
+        candidatos.stream()
+                .map(this::posicaoAtual)
+                .filter(Objects::nonNull)
+                .sorted(RANKING)
+                .limit(limite)
+                .forEach(posicao -> resultado.add(sugestao(posicao)));
+        return resultado;
+    }
+
+    // Prefixos que casam com muitos títulos: os primeiros que casam, na ordem do ranking, já são as melhores sugestões
+    private List<AnimeSugestao> sugerirPorPopularidade(String prefixo, int limite) {
+        List<AnimeSugestao> resultado = new ArrayList<>(limite);
+        // Uma atualização concorrente pode mover um anime de posição durante a leitura
+        Set<Long> vistos = new HashSet<>();
+        for (Posicao posicao : porPopularidade) {
+            Entrada entrada = porId.get(posicao.id());
+            if (entrada == null || !casa(entrada, prefixo) || !vistos.add(posicao.id())) {
+                continue;
+            }
+            resultado.add(sugestao(posicao));
+            if (resultado.size() >= limite) {
+                break;
+            }
+        }
+        return resultado;
+    }
+
+    private static boolean casa(Entrada entrada, String prefixo) {
+        for (String chave : entrada.chaves()) {
+            if (chave.startsWith(prefixo)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Posicao posicaoAtual(Long id) {
+        Entrada entrada = porId.get(id);
+        return entrada == null ? null : new Posicao(popularidade.getOrDefault(id, 0L), entrada.titulo(), id);
+    }
+
+    private AnimeSugestao sugestao(Posicao posicao) {
+        Entrada entrada = porId.get(posicao.id());
+        String imagemUrl = entrada != null ? entrada.imagemUrl() : null;
+        return new AnimeSugestao(posicao.id(), posicao.titulo(), imagemUrl, posicao.popularidade());
+    }
+
+    public int tamanho() {
+        return porId.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarAnime(AnimeAlteradoEvent event) {
+        indexar(event.id(), event.titulo(), event.imagemUrl());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoRemoverAnime(AnimeRemovidoEvent event) {
+        synchronized (escrita) {
+            remover(event.id());
+            popularidade.remove(event.id());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarPopularidade(PopularidadeAlteradaEvent event) {
+        synchronized (escrita) {
+            Posicao anterior = posicaoAtual(event.animeId());
+            if (anterior != null) {
+                porPopularidade.remove(anterior);
+            }
+            popularidade.merge(event.animeId(), (long) event.delta(), (atual, delta) -> Math.max(0L, atual + delta));
+            Posicao nova = posicaoAtual(event.animeId());
+            if (nova != null) {
+                porPopularidade.add(nova);
+            }
+        }
+    }
+
+    private void indexar(Long id, String titulo, String imagemUrl) {
+        if (id == null || titulo == null) {
+            return;
+        }
+        List<String> novasChaves = gerarChaves(id, titulo);
+        synchronized (escrita) {
+            Posicao posicaoAnterior = posicaoAtual(id);
+            if (posicaoAnterior != null) {
+                porPopularidade.remove(posicaoAnterior);
+            }
+            Entrada anterior = porId.put(id, new Entrada(id, titulo, imagemUrl, novasChaves));
+            if (anterior != null) {
+                anterior.chaves().stream()
+                        .filter(chave -> !novasChaves.contains(chave))
+                        .forEach(chaves::remove);
+            }
+            novasChaves.forEach(chave -> chaves.put(chave, id));
+            porPopularidade.add(posicaoAtual(id));
+        }
+    }
+
+    // Chamado com o lock de escrita
+    private void remover(Long id) {
+        Posicao posicao = posicaoAtual(id);
+        if (posicao != null) {
+            porPopularidade.remove(posicao);
+        }
+        Entrada anterior = porId.remove(id);
+        if (anterior != null) {
+            anterior.chaves().forEach(chaves::remove);
+        }
+    }
+
+    // Uma chave por início de palavra: "kimi no na wa" -> "kimi no na wa", "no na wa", "na wa", "wa"
+    private static List<String> gerarChaves(Long id, String titulo) {
+        String normalizado = TituloNormalizer.normalizarPalavras(titulo);
+        List<String> resultado = new ArrayList<>();
+        if (normalizado.isEmpty()) {
+            return resultado;
+        }
+        int inicio = 0;
+        for (int palavra = 0; palavra < MAX_PALAVRAS_INDEXADAS && inicio >= 0; palavra++) {
+            resultado.add(normalizado.substring(inicio) + SEPARADOR + id);
+            int espaco = normalizado.indexOf(' ', inicio);
+            inicio = espaco < 0 ? -1 : espaco + 1;
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,106 @@
+package com.seusanimes.service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * BK-tree de palavras pela distância de Levenshtein.
+ *
+ * Cada filho fica pendurado na distância exata até o pai; pela desigualdade triangular,
+ * uma busca com raio r só desce nos filhos cuja aresta está em [d - r, d + r].
+ * Inserções são serializadas; buscas podem rodar em paralelo com elas.
+ * Não há remoção: palavras que deixaram de existir são filtradas por quem usa a árvore.
+ */
+class BkTree {
+
+    private static final class No {
+        final String palavra;
+        final Map<Integer, No> filhos = new ConcurrentHashMap<>();
+
+        No(String palavra) {
+            this.palavra = palavra;
+        }
+    }
+
+    private volatile No raiz;
+    private int tamanho;
+
+    synchronized void inserir(String palavra) {
+        if (raiz == null) {
+            raiz = new No(palavra);
+            tamanho++;
+            return;
+        }
+        No atual = raiz;
+        while (true) {
+            int distancia = distancia(atual.palavra, palavra);
+            if (distancia == 0) {
+                return;
+            }
+            No filho = atual.filhos.get(distancia);
+            if (filho == null) {
+                atual.filhos.put(distancia, new No(palavra));
+                tamanho++;
+                return;
+            }
+            atual = filho;
+        }
+    }
+
+    synchronized int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * @return Palavras a no máximo raio edições da procurada, com a distância de cada uma.
+     */
+    Map<String, Integer> buscar(String procurada, int raio) {
+        Map<String, Integer> encontradas = new HashMap<>();
+        No inicio = raiz;
+        if (inicio == null) {
+            return encontradas;
+        }
+        Deque<No> pendentes = new ArrayDeque<>();
+        pendentes.push(inicio);
+        while (!pendentes.isEmpty()) {
+            No no = pendentes.pop();
+            int distancia = distancia(no.palavra, procurada);
+            if (distancia <= raio) {
+                encontradas.put(no.palavra, distancia);
+            }
+            for (int aresta = Math.max(1, distancia - raio); aresta <= distancia + raio; aresta++) {
+                No filho = no.filhos.get(aresta);
+                if (filho != null) {
+                    pendentes.push(filho);
+                }
+            }
+        }
+        return encontradas;
+    }
+
+    // Levenshtein com duas linhas de memória
+    static int distancia(String a, String b) {
+        if (a.equals(b)) {
+            return 0;
+        }
+        int[] anterior = new int[b.length() + 1];
+        int[] atual = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            anterior[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            atual[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int custo = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                atual[j] = Math.min(Math.min(atual[j - 1] + 1, anterior[j] + 1), anterior[j - 1] + custo);
+            }
+            int[] troca = anterior;
+            anterior = atual;
+            atual = troca;
+        }
+        return anterior[b.length()];
+    }
+}
@@ -0,0 +1,45 @@
+package com.seusanimes.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Interpreta o parâmetro ?fields= das listagens: nomes separados por vírgula, validados contra
+ * a lista de campos permitidos do endpoint. "resumo" expande para o conjunto usado nos cards.
+ */
+public final class CamposSelecionados {
+
+    public static final String RESUMO = "resumo";
+
+    private CamposSelecionados() {
+    }
+
+    /**
+     * @return Campos na ordem pedida, sem repetição; lista vazia se fields não foi informado
+     *         (o endpoint devolve a representação completa).
+     * @throws IllegalArgumentException se algum campo não estiver entre os permitidos.
+     */
+    public static List<String> resolver(String fields, List<String> permitidos, List<String> resumo) {
+        if (fields == null || fields.isBlank()) {
+            return List.of();
+        }
+        Set<String> campos = new LinkedHashSet<>();
+        for (String item : fields.split(",")) {
+            String campo = item.trim();
+            if (campo.isEmpty()) {
+                continue;
+            }
+            if (RESUMO.equals(campo)) {
+                campos.addAll(resumo);
+            } else if (permitidos.contains(campo)) {
+                campos.add(campo);
+            } else {
+                throw new IllegalArgumentException("Campo desconhecido em fields: '" + campo + "'. Permitidos: "
+                        + String.join(", ", permitidos) + " ou " + RESUMO + ".");
+            }
+        }
+        return new ArrayList<>(campos);
+    }
+}
@@ -0,0 +1,349 @@
+package com.seusanimes.service;
+
+import com.seusanimes.event.AnimeAlteradoEvent;
+import com.seusanimes.event.AnimeRemovidoEvent;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice em memória do catálogo com um bitmap comprimido (Roaring) de ids de anime por categoria, ano e status.
+ *
+ * Filtros como "Action E Fantasy SEM Ecchi, de 2015 a 2020" viram operações de conjunto entre bitmaps;
+ * o banco só é consultado para carregar os animes da página pedida.
+ * Além dos bitmaps, os atributos de cada anime ficam em arrays indexados pelo id (colunas), de onde
+ * as contagens por faceta saem numa única passada pelos ids do resultado.
+ * Montado no startup e mantido pelos eventos de anime (após o commit).
+ */
+@Component
+public class CatalogoIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogoIndex.class);
+
+    // Filtro já resolvido para ids de categoria. Listas vazias e anos nulos não restringem nada.
+    public record Filtro(Collection<Long> todasAsCategorias, Collection<Long> algumaCategoria,
+                         Collection<Long> nenhumaCategoria, Integer anoInicio, Integer anoFim, String status) {
+
+        public Filtro(Collection<Long> todasAsCategorias, Collection<Long> algumaCategoria,
+                      Collection<Long> nenhumaCategoria, Integer anoInicio, Integer anoFim) {
+            this(todasAsCategorias, algumaCategoria, nenhumaCategoria, anoInicio, anoFim, null);
+        }
+    }
+
+    // Contagens de um resultado: id da categoria, ano e status (texto da Jikan) -> quantidade de animes
+    public record Facetas(Map<Long, Long> porCategoria, Map<Integer, Long> porAno, Map<String, Long> porStatus) {
+    }
+
+    // Ano e categorias com que um anime está indexado
+    public record Indexacao(Integer ano, Set<Long> categoriaIds) {
+    }
+
+    private static final int SEM_ANO = Integer.MIN_VALUE;
+    private static final int[] SEM_CATEGORIAS = new int[0];
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // RoaringBitmap não é thread-safe: leituras compartilham o lock, atualizações são exclusivas
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RoaringBitmap todos = new RoaringBitmap();
+    private final Map<Long, RoaringBitmap> porCategoria = new HashMap<>();
+    private final NavigableMap<Integer, RoaringBitmap> porAno = new TreeMap<>();
+    private final Map<String, RoaringBitmap> porStatus = new HashMap<>();
+
+    // Categorias e status ganham códigos densos (0, 1, 2...) para as contagens usarem arrays
+    private final Map<Long, Integer> codigoDaCategoria = new HashMap<>();
+    private final List<Long> categoriaDoCodigo = new ArrayList<>();
+    private final Map<String, Integer> codigoDoStatus = new HashMap<>();
+    private final List<String> statusDoCodigo = new ArrayList<>();
+
+    // Colunas indexadas pelo id do anime; também servem para desfazer as entradas antigas numa atualização
+    private int[][] categoriasDoAnime = new int[0][];
+    private int[] anoDoAnime = new int[0];
+    private int[] statusDoAnime = new int[0];
+
+    public CatalogoIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        Map<Integer, List<Long>> categorias = new HashMap<>();
+        jdbcTemplate.query("SELECT anime_id, categoria_id FROM anime_categoria", rs -> {
+            categorias.computeIfAbsent(Math.toIntExact(rs.getLong("anime_id")), id -> new ArrayList<>())
+                    .add(rs.getLong("categoria_id"));
+        });
+        lock.writeLock().lock();
+        try {
+            jdbcTemplate.query("SELECT id, ano, status FROM animes", rs -> {
+                int id = Math.toIntExact(rs.getLong("id"));
+                int ano = rs.getInt("ano");
+                Integer anoOuNulo = rs.wasNull() ? null : ano;
+                indexar(id, anoOuNulo, rs.getString("status"), categorias.getOrDefault(id, List.of()));
+            });
+            todos.runOptimize();
+            porCategoria.values().forEach(RoaringBitmap::runOptimize);
+            porAno.values().forEach(RoaringBitmap::runOptimize);
+            porStatus.values().forEach(RoaringBitmap::runOptimize);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("CatalogoIndex: {} animes, {} categorias indexadas.", todos.getCardinality(), porCategoria.size());
+    }
+
+    /**
+     * Ids dos animes que atendem ao filtro, em ordem crescente (cópia: pode ser lida sem lock).
+     */
+    public RoaringBitmap filtrar(Filtro filtro) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap resultado;
+            if (!filtro.todasAsCategorias().isEmpty()) {
+                resultado = null;
+                for (Long categoriaId : filtro.todasAsCategorias()) {
+                    RoaringBitmap bitmap = porCategoria.get(categoriaId);
+                    if (bitmap == null) {
+                        return new RoaringBitmap();
+                    }
+                    resultado = resultado == null ? bitmap.clone() : RoaringBitmap.and(resultado, bitmap);
+                }
+            } else {
+                resultado = todos.clone();
+            }
+            if (!filtro.algumaCategoria().isEmpty()) {
+                resultado.and(uniao(filtro.algumaCategoria()));
+            }
+            if (!filtro.nenhumaCategoria().isEmpty()) {
+                resultado.andNot(uniao(filtro.nenhumaCategoria()));
+            }
+            if (filtro.anoInicio() != null || filtro.anoFim() != null) {
+                int inicio = filtro.anoInicio() != null ? filtro.anoInicio() : Integer.MIN_VALUE;
+                int fim = filtro.anoFim() != null ? filtro.anoFim() : Integer.MAX_VALUE;
+                resultado.and(RoaringBitmap.or(porAno.subMap(inicio, true, fim, true).values().iterator()));
+            }
+            if (filtro.status() != null) {
+                RoaringBitmap bitmap = porStatus.get(filtro.status());
+                if (bitmap == null) {
+                    return new RoaringBitmap();
+                }
+                resultado.and(bitmap);
+            }
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ids da página pedida dentro de um resultado de filtrar, sem materializar os anteriores
+    public static List<Long> pagina(RoaringBitmap ids, long offset, int tamanho) {
+        List<Long> pagina = new ArrayList<>(tamanho);
+        if (offset >= ids.getCardinality()) {
+            return pagina;
+        }
+        PeekableIntIterator iterador = ids.getIntIterator();
+        iterador.advanceIfNeeded(ids.select((int) offset));
+        while (iterador.hasNext() && pagina.size() < tamanho) {
+            pagina.add(Integer.toUnsignedLong(iterador.next()));
+        }
+        return pagina;
+    }
+
+    /**
+     * Contagens por categoria, ano e status dos animes em ids, numa única passada pelas colunas.
+     */
+    public Facetas contarFacetas(RoaringBitmap ids) {
+        lock.readLock().lock();
+        try {
+            long[] porCodigoDeCategoria = new long[categoriaDoCodigo.size()];
+            long[] porCodigoDeStatus = new long[statusDoCodigo.size()];
+            Map<Integer, long[]> porAnoContado = new HashMap<>();
+
+            PeekableIntIterator iterador = ids.getIntIterator();
+            while (iterador.hasNext()) {
+                int id = iterador.next();
+                if (id < 0 || id >= anoDoAnime.length) {
+                    continue;
+                }
+                int[] categorias = categoriasDoAnime[id];
+                if (categorias != null) {
+                    for (int codigo : categorias) {
+                        porCodigoDeCategoria[codigo]++;
+                    }
+                }
+                int ano = anoDoAnime[id];
+                if (ano != SEM_ANO) {
+                    porAnoContado.computeIfAbsent(ano, chave -> new long[1])[0]++;
+                }
+                int status = statusDoAnime[id];
+                if (status >= 0) {
+                    porCodigoDeStatus[status]++;
+                }
+            }
+
+            Map<Long, Long> categorias = new HashMap<>();
+            for (int codigo = 0; codigo < porCodigoDeCategoria.length; codigo++) {
+                if (porCodigoDeCategoria[codigo] > 0) {
+                    categorias.put(categoriaDoCodigo.get(codigo), porCodigoDeCategoria[codigo]);
+                }
+            }
+            Map<Integer, Long> anos = new TreeMap<>();
+            porAnoContado.forEach((ano, total) -> anos.put(ano, total[0]));
+            Map<String, Long> status = new HashMap<>();
+            for (int codigo = 0; codigo < porCodigoDeStatus.length; codigo++) {
+                if (porCodigoDeStatus[codigo] > 0) {
+                    status.put(statusDoCodigo.get(codigo), porCodigoDeStatus[codigo]);
+                }
+            }
+            return new Facetas(categorias, anos, status);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Estado indexado do anime. Como o índice só muda depois do commit, chamado durante uma escrita
+     * devolve o estado anterior a ela (base de AnimeAlteradoEvent.anoAnterior/categoriaIdsAnteriores).
+     */
+    public Optional<Indexacao> indexacao(Long animeId) {
+        if (animeId == null || animeId < 0 || animeId > Integer.MAX_VALUE) {
+            return Optional.empty();
+        }
+        int id = animeId.intValue();
+        lock.readLock().lock();
+        try {
+            if (!todos.contains(id)) {
+                return Optional.empty();
+            }
+            Set<Long> categoriaIds = new HashSet<>();
+            for (int codigo : categoriasDoAnime[id]) {
+                categoriaIds.add(categoriaDoCodigo.get(codigo));
+            }
+            return Optional.of(new Indexacao(anoDoAnime[id] != SEM_ANO ? anoDoAnime[id] : null, categoriaIds));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // @Order(0): antes do CatalogoRespostaCache, que remonta páginas de /generos a partir deste índice
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarAnime(AnimeAlteradoEvent event) {
+        if (event.id() == null) {
+            return;
+        }
+        Set<Long> categoriaIds = event.categoriaIds() == null ? Set.of() : event.categoriaIds();
+        lock.writeLock().lock();
+        try {
+            int id = Math.toIntExact(event.id());
+            desindexar(id);
+            indexar(id, event.ano(), event.status(), categoriaIds);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoRemoverAnime(AnimeRemovidoEvent event) {
+        lock.writeLock().lock();
+        try {
+            desindexar(Math.toIntExact(event.id()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private RoaringBitmap uniao(Collection<Long> categoriaIds) {
+        RoaringBitmap uniao = new RoaringBitmap();
+        for (Long categoriaId : categoriaIds) {
+            RoaringBitmap bitmap = porCategoria.get(categoriaId);
+            if (bitmap != null) {
+                uniao.or(bitmap);
+            }
+        }
+        return uniao;
+    }
+
+    // Chamados com o write lock
+    private void indexar(int id, Integer ano, String status, Collection<Long> categoriaIds) {
+        garantirCapacidade(id);
+        todos.add(id);
+
+        int[] codigos = categoriaIds.isEmpty() ? SEM_CATEGORIAS : new int[categoriaIds.size()];
+        int i = 0;
+        for (Long categoriaId : categoriaIds) {
+            porCategoria.computeIfAbsent(categoriaId, chave -> new RoaringBitmap()).add(id);
+            codigos[i++] = codigoDaCategoria.computeIfAbsent(categoriaId, chave -> {
+                categoriaDoCodigo.add(chave);
+                return categoriaDoCodigo.size() - 1;
+            });
+        }
+        categoriasDoAnime[id] = codigos;
+
+        anoDoAnime[id] = ano != null ? ano : SEM_ANO;
+        if (ano != null) {
+            porAno.computeIfAbsent(ano, chave -> new RoaringBitmap()).add(id);
+        }
+
+        statusDoAnime[id] = -1;
+        if (status != null) {
+            porStatus.computeIfAbsent(status, chave -> new RoaringBitmap()).add(id);
+            statusDoAnime[id] = codigoDoStatus.computeIfAbsent(status, chave -> {
+                statusDoCodigo.add(chave);
+                return statusDoCodigo.size() - 1;
+            });
+        }
+    }
+
+    private void desindexar(int id) {
+        if (!todos.contains(id)) {
+            return;
+        }
+        todos.remove(id);
+        for (int codigo : categoriasDoAnime[id]) {
+            porCategoria.get(categoriaDoCodigo.get(codigo)).remove(id);
+        }
+        categoriasDoAnime[id] = null;
+        if (anoDoAnime[id] != SEM_ANO) {
+            porAno.get(anoDoAnime[id]).remove(id);
+            anoDoAnime[id] = SEM_ANO;
+        }
+        if (statusDoAnime[id] >= 0) {
+            porStatus.get(statusDoCodigo.get(statusDoAnime[id])).remove(id);
+            statusDoAnime[id] = -1;
+        }
+    }
+
+    // As colunas crescem dobrando de tamanho; ids vêm de uma sequência, então ficam densas
+    private void garantirCapacidade(int id) {
+        if (id < anoDoAnime.length) {
+            return;
+        }
+        int tamanhoAnterior = anoDoAnime.length;
+        int novoTamanho = Math.max(id + 1, Math.max(1024, tamanhoAnterior * 2));
+        categoriasDoAnime = Arrays.copyOf(categoriasDoAnime, novoTamanho);
+        anoDoAnime = Arrays.copyOf(anoDoAnime, novoTamanho);
+        statusDoAnime = Arrays.copyOf(statusDoAnime, novoTamanho);
+        Arrays.fill(anoDoAnime, tamanhoAnterior, novoTamanho, SEM_ANO);
+        Arrays.fill(statusDoAnime, tamanhoAnterior, novoTamanho, -1);
+    }
+}
@@ -0,0 +1,252 @@
+package com.seusanimes.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.seusanimes.config.FormatoResposta;
+import com.seusanimes.event.AnimeAlteradoEvent;
+import com.seusanimes.event.AnimeRemovidoEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Primeiras páginas do catálogo (GET /api/animes, /generos e /ano/{ano}) já serializadas no formato
+ * negociado (JSON, CBOR ou Smile, cada um com sua entrada) e comprimidas em gzip, prontas para serem escritas na resposta sem consulta, hidratação nem Jackson.
+ *
+ * Cada página guarda tags do que ela depende: "catalogo" (listagem geral), "genero:nome", "ano:N"
+ * e "anime:id" de cada anime que aparece nela. Escritas no catálogo (AnimeService e importações, via
+ * AnimeAlteradoEvent) invalidam só as tags afetadas: o ano e os gêneros novos e também os anteriores,
+ * já que um anime que sai de um gênero/ano desloca as páginas dele mesmo sem aparecer nelas.
+ * O TTL (app.catalogo.cache.ttl) só cobre o que escapa dos eventos (ex.: escritas direto no banco).
+ *
+ * Métricas em cache.gets?tag=cache:catalogo.respostas.
+ */
+@Component
+public class CatalogoRespostaCache {
+
+    public static final String TAG_CATALOGO = "catalogo";
+
+    // Corpo pronto para o socket: a página serializada e a mesma coisa em gzip
+    public record RespostaSerializada(byte[] corpo, byte[] gzip) {
+    }
+
+    // Identidade importa: a remoção pelas tags só tira do cache a entrada que foi registrada nelas
+    private static final class Entrada {
+        final String chave;
+        final RespostaSerializada resposta;
+        final Set<String> tags;
+
+        Entrada(String chave, RespostaSerializada resposta, Set<String> tags) {
+            this.chave = chave;
+            this.resposta = resposta;
+            this.tags = tags;
+        }
+    }
+
+    private final Map<FormatoResposta, ObjectMapper> mappers = new EnumMap<>(FormatoResposta.class);
+    private final CategoriaRegistry categoriaRegistry;
+    private final int maxPaginas;
+    private final int maxTamanhoPagina;
+
+    private final Cache<String, Entrada> cache;
+    private final Map<String, Set<Entrada>> entradasPorTag = new ConcurrentHashMap<>();
+    private final SingleFlight<String, RespostaSerializada> emMontagem = new SingleFlight<>();
+
+    // Invalidações e registros de novas entradas passam por este lock; montagens que começaram
+    // antes de uma invalidação não são guardadas (podem ter lido o estado anterior à escrita).
+    private final Object lock = new Object();
+    private long geracao;
+
+    public CatalogoRespostaCache(ObjectMapper objectMapper,
+                                 MappingJackson2CborHttpMessageConverter cborConverter,
+                                 MappingJackson2SmileHttpMessageConverter smileConverter,
+                                 CategoriaRegistry categoriaRegistry,
+                                 ObjectProvider<MeterRegistry> meterRegistry,
+                                 @Value("${app.catalogo.cache.max-size:64MB}") DataSize maxSize,
+                                 @Value("${app.catalogo.cache.ttl:10m}") Duration ttl,
+                                 @Value("${app.catalogo.cache.max-paginas:3}") int maxPaginas,
+                                 @Value("${app.catalogo.cache.max-tamanho-pagina:50}") int maxTamanhoPagina) {
+        this.mappers.put(FormatoResposta.JSON, objectMapper);
+        this.mappers.put(FormatoResposta.CBOR, cborConverter.getObjectMapper());
+        this.mappers.put(FormatoResposta.SMILE, smileConverter.getObjectMapper());
+        this.categoriaRegistry = categoriaRegistry;
+        this.maxPaginas = maxPaginas;
+        this.maxTamanhoPagina = maxTamanhoPagina;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String chave, Entrada entrada) -> entrada.resposta.corpo().length + entrada.resposta.gzip().length)
+                .expireAfterWrite(ttl)
+                .removalListener((String chave, Entrada entrada, RemovalCause causa) -> {
+                    if (entrada != null) {
+                        desregistrar(entrada);
+                    }
+                })
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache, "catalogo.respostas"));
+    }
+
+    // Só as primeiras páginas, de tamanho razoável, valem o espaço
+    public boolean cacheavel(Pageable pageable) {
+        return pageable.getPageNumber() < maxPaginas && pageable.getPageSize() <= maxTamanhoPagina;
+    }
+
+    /**
+     * Devolve a página já serializada, montando-a na primeira vez. Requisições simultâneas pela
+     * mesma chave esperam a mesma montagem em vez de consultar o banco cada uma.
+     *
+     * @param chave Parâmetros normalizados da consulta.
+     * @param formato Codificação negociada com o cliente; cada formato é guardado separadamente.
+     * @param consulta Carrega o corpo da resposta.
+     * @param tags Tags de invalidação, calculadas a partir do corpo carregado.
+     */
+    public <T> RespostaSerializada obter(String chave, FormatoResposta formato, Supplier<T> consulta,
+                                         Function<T, Collection<String>> tags) throws InterruptedException {
+        String chaveDoFormato = formato.name() + ":" + chave;
+        Entrada entrada = cache.getIfPresent(chaveDoFormato);
+        if (entrada != null) {
+            return entrada.resposta;
+        }
+        return emMontagem.executar(chaveDoFormato, () -> montar(chaveDoFormato, formato, consulta, tags));
+    }
+
+    private <T> RespostaSerializada montar(String chave, FormatoResposta formato, Supplier<T> consulta,
+                                           Function<T, Collection<String>> tags) {
+        long geracaoInicial;
+        synchronized (lock) {
+            geracaoInicial = geracao;
+        }
+        T corpo = consulta.get();
+        RespostaSerializada resposta = serializar(corpo, formato);
+        Entrada entrada = new Entrada(chave, resposta, Set.copyOf(tags.apply(corpo)));
+        synchronized (lock) {
+            if (geracao == geracaoInicial) {
+                entrada.tags.forEach(tag -> entradasPorTag.computeIfAbsent(tag, t -> ConcurrentHashMap.newKeySet()).add(entrada));
+                cache.put(chave, entrada);
+            }
+        }
+        return resposta;
+    }
+
+    private RespostaSerializada serializar(Object corpo, FormatoResposta formato) {
+        try {
+            byte[] serializado = mappers.get(formato).writeValueAsBytes(corpo);
+            return new RespostaSerializada(serializado, gzip(serializado));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar página do catálogo.", e);
+        }
+    }
+
+    // Comprimido uma vez e servido muitas: vale o nível máximo
+    private static byte[] gzip(byte[] dados) {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(Math.max(64, dados.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(saida) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(dados);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return saida.toByteArray();
+    }
+
+    public void invalidar(Collection<String> tags) {
+        synchronized (lock) {
+            geracao++;
+            for (String tag : tags) {
+                Set<Entrada> entradas = entradasPorTag.remove(tag);
+                if (entradas != null) {
+                    entradas.forEach(entrada -> cache.asMap().remove(entrada.chave, entrada));
+                }
+            }
+        }
+    }
+
+    // Esvazia o cache e devolve quantas entradas havia (aproximado)
+    public long limpar() {
+        synchronized (lock) {
+            geracao++;
+            long removidas = cache.estimatedSize();
+            cache.invalidateAll();
+            entradasPorTag.clear();
+            return removidas;
+        }
+    }
+
+    private void desregistrar(Entrada entrada) {
+        for (String tag : entrada.tags) {
+            entradasPorTag.computeIfPresent(tag, (t, entradas) -> {
+                entradas.remove(entrada);
+                return entradas.isEmpty() ? null : entradas;
+            });
+        }
+    }
+
+    public static String tagAnime(Long animeId) {
+        return "anime:" + animeId;
+    }
+
+    public static String tagGenero(String nome) {
+        return "genero:" + nome.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public static String tagAno(Integer ano) {
+        return "ano:" + ano;
+    }
+
+    // Roda depois do CatalogoIndex (que escuta com @Order(0)): uma página remontada logo após a invalidação já vê o índice atualizado
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarAnime(AnimeAlteradoEvent event) {
+        List<String> tags = new ArrayList<>();
+        tags.add(TAG_CATALOGO);
+        tags.add(tagAnime(event.id()));
+        adicionarTags(tags, event.ano(), event.categoriaIds());
+        adicionarTags(tags, event.anoAnterior(), event.categoriaIdsAnteriores());
+        invalidar(tags);
+    }
+
+    private void adicionarTags(List<String> tags, Integer ano, Collection<Long> categoriaIds) {
+        if (ano != null) {
+            tags.add(tagAno(ano));
+        }
+        if (categoriaIds != null) {
+            categoriaIds.forEach(categoriaId -> categoriaRegistry.buscarPorId(categoriaId)
+                    .ifPresent(ref -> tags.add(tagGenero(ref.nome()))));
+        }
+    }
+
+    // Remoções são raras e o evento não diz de quais gêneros/anos o anime saiu: descarta tudo
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoRemoverAnime(AnimeRemovidoEvent event) {
+        limpar();
+    }
+}
@@ -0,0 +1,141 @@
+package com.seusanimes.service;
+
+import com.seusanimes.model.Categoria;
+import com.seusanimes.repository.CacheSegundoNivel;
+import com.seusanimes.repository.CategoriaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cópia em memória da tabela categorias (nome -> id, sem diferenciar maiúsculas).
+ *
+ * Carregada no startup e mantida coerente pelas escritas do CategoriaController e das importações,
+ * evitando um findByNomeIgnoreCase por gênero de cada anime importado.
+ */
+@Component
+public class CategoriaRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoriaRegistry.class);
+
+    // Identificação leve de uma categoria, segura para compartilhar entre threads
+    public record CategoriaRef(Long id, String nome) {
+    }
+
+    private final CategoriaRepository categoriaRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate novaTransacao;
+    private final CacheSegundoNivel cacheSegundoNivel;
+
+    private final Map<String, CategoriaRef> porNome = new ConcurrentHashMap<>();
+    private final Map<Long, CategoriaRef> porId = new ConcurrentHashMap<>();
+
+    public CategoriaRegistry(CategoriaRepository categoriaRepository,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             CacheSegundoNivel cacheSegundoNivel) {
+        this.categoriaRepository = categoriaRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheSegundoNivel = cacheSegundoNivel;
+        // A criação de uma categoria é confirmada na hora, mesmo que a importação que a pediu falhe depois;
+        // assim o registro nunca guarda o id de uma linha desfeita por rollback.
+        this.novaTransacao = new TransactionTemplate(transactionManager);
+        this.novaTransacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        List<Categoria> categorias = categoriaRepository.findAll();
+        categorias.forEach(this::registrar);
+        logger.info("CategoriaRegistry: {} categorias carregadas em memória.", categorias.size());
+    }
+
+    private static String chave(String nome) {
+        return nome.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public Optional<CategoriaRef> buscarPorNome(String nome) {
+        return Optional.ofNullable(porNome.get(chave(nome)));
+    }
+
+    public Optional<CategoriaRef> buscarPorId(Long id) {
+        return Optional.ofNullable(porId.get(id));
+    }
+
+    // Ids das categorias cujo nome contém o termo (mesma semântica do antigo NomeContainingIgnoreCase)
+    public List<Long> idsContendo(String termo) {
+        String procurado = chave(termo);
+        return porNome.entrySet().stream()
+                .filter(entry -> entry.getKey().contains(procurado))
+                .map(entry -> entry.getValue().id())
+                .toList();
+    }
+
+    /**
+     * Devolve o id da categoria com o nome informado, criando-a se ainda não existir.
+     * Importações concorrentes que pedem a mesma categoria nova acabam com o mesmo id.
+     *
+     * A criação usa uma conexão própria (REQUIRES_NEW): chame antes de abrir a transação
+     * de gravação, para não segurar duas conexões do pool ao mesmo tempo.
+     */
+    public Long resolverId(String nome) {
+        CategoriaRef ref = porNome.get(chave(nome));
+        if (ref != null) {
+            return ref.id();
+        }
+        ref = novaTransacao.execute(status -> inserirSeAusente(nome.trim()));
+        CategoriaRef existente = porNome.putIfAbsent(chave(ref.nome()), ref);
+        if (existente != null) {
+            return existente.id();
+        }
+        porId.put(ref.id(), ref);
+        return ref.id();
+    }
+
+    private CategoriaRef inserirSeAusente(String nome) {
+        return selecionarPorNome(nome).orElseGet(() -> {
+            jdbcTemplate.update("INSERT INTO categorias (nome, atualizado_em) VALUES (?, now()) ON CONFLICT (nome) DO NOTHING", nome);
+            // Insert fora do Hibernate: a lista de categorias em cache ficaria sem a nova
+            cacheSegundoNivel.evictConsultas();
+            return selecionarPorNome(nome).orElseThrow();
+        });
+    }
+
+    private Optional<CategoriaRef> selecionarPorNome(String nome) {
+        return jdbcTemplate.query("SELECT id, nome FROM categorias WHERE lower(nome) = lower(?) ORDER BY id LIMIT 1",
+                (rs, rowNum) -> new CategoriaRef(rs.getLong("id"), rs.getString("nome")), nome)
+                .stream()
+                .findFirst();
+    }
+
+    // Chamado após criar ou renomear uma categoria
+    public void registrar(Categoria categoria) {
+        CategoriaRef anterior = porId.get(categoria.getId());
+        if (anterior != null) {
+            porNome.remove(chave(anterior.nome()), anterior);
+        }
+        CategoriaRef ref = new CategoriaRef(categoria.getId(), categoria.getNome());
+        porId.put(ref.id(), ref);
+        porNome.put(chave(ref.nome()), ref);
+    }
+
+    // Chamado após excluir uma categoria
+    public void remover(Long id) {
+        CategoriaRef anterior = porId.remove(id);
+        if (anterior != null) {
+            porNome.remove(chave(anterior.nome()), anterior);
+        }
+    }
+}
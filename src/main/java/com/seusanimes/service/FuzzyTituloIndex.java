@@ -0,0 +1,173 @@
+package com.seusanimes.service;
+
+import com.seusanimes.event.AnimeAlteradoEvent;
+import com.seusanimes.event.AnimeRemovidoEvent;
+import com.seusanimes.repository.AnimeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Busca tolerante a erros de digitação nos títulos locais ("Shingeki no Kyojn" -> "Shingeki no Kyojin").
+ *
+ * O vocabulário (palavras normalizadas de todos os títulos) fica numa BK-tree; um índice invertido
+ * liga cada palavra aos animes que a contêm. Um título casa quando cada palavra da consulta está
+ * a poucas edições de alguma palavra dele; os mais próximos (menor soma de edições) vêm primeiro.
+ */
+@Component
+public class FuzzyTituloIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(FuzzyTituloIndex.class);
+
+    // Resultado da busca: id do anime e total de edições em relação à consulta
+    public record Correspondencia(Long animeId, int distancia) {
+    }
+
+    private record Entrada(Long id, List<String> palavras) {
+    }
+
+    private final AnimeRepository animeRepository;
+
+    private final BkTree vocabulario = new BkTree();
+    private final Map<String, Set<Long>> animesPorPalavra = new ConcurrentHashMap<>();
+    private final Map<Long, Entrada> porId = new ConcurrentHashMap<>();
+
+    public FuzzyTituloIndex(AnimeRepository animeRepository) {
+        this.animeRepository = animeRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        List<Object[]> titulos = animeRepository.listarTitulos();
+        for (Object[] linha : titulos) {
+            indexar((Long) linha[0], (String) linha[1]);
+        }
+        logger.info("FuzzyTituloIndex: {} títulos, {} palavras no vocabulário.", titulos.size(), vocabulario.tamanho());
+    }
+
+    // Edições toleradas por palavra: palavras curtas ("no", "wa") precisam casar exatamente
+    static int raio(String palavra) {
+        int tamanho = palavra.length();
+        if (tamanho <= 3) {
+            return 0;
+        }
+        // A partir de 6 letras cabe uma transposição ("naruot"), que custa 2 no Levenshtein
+        return tamanho <= 5 ? 1 : 2;
+    }
+
+    /**
+     * @param consulta Título como o usuário digitou.
+     * @param limite Quantidade máxima de resultados.
+     * @return Os animes mais próximos, do menor para o maior número de edições.
+     */
+    public List<Correspondencia> buscar(String consulta, int limite) {
+        List<String> palavrasConsulta = palavras(consulta).stream().distinct().toList();
+        if (palavrasConsulta.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+
+        // Para cada anime candidato, a menor distância encontrada para cada palavra da consulta
+        Map<Long, int[]> melhores = new HashMap<>();
+        for (int i = 0; i < palavrasConsulta.size(); i++) {
+            String palavra = palavrasConsulta.get(i);
+            for (Map.Entry<String, Integer> vizinha : vocabulario.buscar(palavra, raio(palavra)).entrySet()) {
+                Set<Long> ids = animesPorPalavra.get(vizinha.getKey());
+                if (ids == null) {
+                    continue;
+                }
+                for (Long id : ids) {
+                    int[] distancias = melhores.computeIfAbsent(id, chave -> novoVetor(palavrasConsulta.size()));
+                    distancias[i] = Math.min(distancias[i], vizinha.getValue());
+                }
+            }
+        }
+
+        List<Correspondencia> resultado = new ArrayList<>();
+        for (Map.Entry<Long, int[]> candidato : melhores.entrySet()) {
+            int total = 0;
+            for (int distancia : candidato.getValue()) {
+                if (distancia == Integer.MAX_VALUE) {
+                    total = -1;
+                    break;
+                }
+                total += distancia;
+            }
+            if (total >= 0) {
+                resultado.add(new Correspondencia(candidato.getKey(), total));
+            }
+        }
+
+        // Empate: títulos com menos palavras sobrando vêm primeiro ("naruto" prefere "Naruto" a "Naruto Shippuden")
+        resultado.sort(Comparator.comparingInt(Correspondencia::distancia)
+                .thenComparingInt(c -> palavrasSobrando(c.animeId(), palavrasConsulta.size()))
+                .thenComparing(Correspondencia::animeId));
+        return resultado.size() > limite ? List.copyOf(resultado.subList(0, limite)) : resultado;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarAnime(AnimeAlteradoEvent event) {
+        indexar(event.id(), event.titulo());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoRemoverAnime(AnimeRemovidoEvent event) {
+        desindexar(event.id());
+    }
+
+    private int palavrasSobrando(Long animeId, int palavrasConsulta) {
+        Entrada entrada = porId.get(animeId);
+        return entrada == null ? Integer.MAX_VALUE : Math.abs(entrada.palavras().size() - palavrasConsulta);
+    }
+
+    private void indexar(Long id, String titulo) {
+        if (id == null || titulo == null) {
+            return;
+        }
+        desindexar(id);
+        List<String> palavras = palavras(titulo);
+        porId.put(id, new Entrada(id, palavras));
+        for (String palavra : palavras) {
+            animesPorPalavra.computeIfAbsent(palavra, chave -> {
+                vocabulario.inserir(chave);
+                return ConcurrentHashMap.newKeySet();
+            }).add(id);
+        }
+    }
+
+    // A palavra continua na BK-tree; sem animes associados ela é simplesmente ignorada nas buscas
+    private void desindexar(Long id) {
+        Entrada anterior = porId.remove(id);
+        if (anterior == null) {
+            return;
+        }
+        for (String palavra : anterior.palavras()) {
+            Set<Long> ids = animesPorPalavra.get(palavra);
+            if (ids != null) {
+                ids.remove(id);
+            }
+        }
+    }
+
+    private static List<String> palavras(String texto) {
+        String normalizado = TituloNormalizer.normalizarPalavras(texto);
+        return normalizado.isEmpty() ? List.of() : Arrays.asList(normalizado.split(" "));
+    }
+
+    private static int[] novoVetor(int tamanho) {
+        int[] vetor = new int[tamanho];
+        Arrays.fill(vetor, Integer.MAX_VALUE);
+        return vetor;
+    }
+}
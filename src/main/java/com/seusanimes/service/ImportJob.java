@@ -0,0 +1,91 @@
+package com.seusanimes.service;
+
+import com.seusanimes.dto.ImportJobResponse;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estado de um job de importação da API Jikan.
+ * Os contadores são atualizados pelos estágios do pipeline, cada um em sua própria thread.
+ */
+public class ImportJob {
+
+    public enum Status {
+        PENDENTE,
+        EXECUTANDO,
+        CONCLUIDO,
+        FALHOU
+    }
+
+    private final String id = UUID.randomUUID().toString();
+    private final int anoInicio;
+    private final int anoFim;
+    private final LocalDateTime criadoEm = LocalDateTime.now();
+
+    final AtomicLong paginasBuscadas = new AtomicLong();
+    final AtomicLong animesLidos = new AtomicLong();
+    final AtomicLong registrosGravados = new AtomicLong();
+    final AtomicLong erros = new AtomicLong();
+
+    private volatile Status status = Status.PENDENTE;
+    private volatile String ultimoErro;
+    private volatile boolean buscaFalhou;
+    private volatile LocalDateTime finalizadoEm;
+
+    ImportJob(int anoInicio, int anoFim) {
+        this.anoInicio = anoInicio;
+        this.anoFim = anoFim;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getAnoInicio() {
+        return anoInicio;
+    }
+
+    public int getAnoFim() {
+        return anoFim;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isFinalizado() {
+        return status == Status.CONCLUIDO || status == Status.FALHOU;
+    }
+
+    void iniciar() {
+        status = Status.EXECUTANDO;
+    }
+
+    void registrarErro(String mensagem) {
+        erros.incrementAndGet();
+        ultimoErro = mensagem;
+    }
+
+    // A busca parou antes da última página: o que já foi lido ainda é gravado, mas o job termina como FALHOU
+    void marcarFalhaNaBusca(String mensagem) {
+        buscaFalhou = true;
+        registrarErro(mensagem);
+    }
+
+    boolean isBuscaFalhou() {
+        return buscaFalhou;
+    }
+
+    void finalizar(boolean falhou) {
+        status = falhou ? Status.FALHOU : Status.CONCLUIDO;
+        finalizadoEm = LocalDateTime.now();
+    }
+
+    public ImportJobResponse toResponse() {
+        return new ImportJobResponse(id, status.name(), anoInicio, anoFim,
+                paginasBuscadas.get(), animesLidos.get(), registrosGravados.get(), erros.get(),
+                ultimoErro, criadoEm, finalizadoEm);
+    }
+}
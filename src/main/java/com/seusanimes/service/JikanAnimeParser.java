@@ -0,0 +1,220 @@
+package com.seusanimes.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seusanimes.dto.JikanAnime;
+import com.seusanimes.dto.JikanPagina;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leitor em streaming das respostas da API Jikan (/v4/anime).
+ *
+ * Percorre o JSON token a token e só materializa os campos que persistimos
+ * (mal_id, title, synopsis, episodes, images.jpg.image_url, status, aired.from, genres[].name).
+ * Todo o resto é pulado sem montar Map/List intermediários.
+ */
+@Component
+public class JikanAnimeParser {
+
+    private final JsonFactory jsonFactory;
+
+    public JikanAnimeParser(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    // Converte o envelope { "pagination": {...}, "data": [...] }
+    public JikanPagina parsePagina(byte[] response) throws IOException {
+        List<JikanAnime> animes = new ArrayList<>();
+        boolean temProximaPagina = false;
+        if (response == null || response.length == 0) {
+            return new JikanPagina(animes, false);
+        }
+        try (JsonParser parser = jsonFactory.createParser(response)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Resposta da API externa não é um objeto JSON.");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String campo = parser.currentName();
+                JsonToken valor = parser.nextToken();
+                if ("data".equals(campo) && valor == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        if (parser.currentToken() == JsonToken.START_OBJECT) {
+                            animes.add(lerAnime(parser));
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else if ("pagination".equals(campo) && valor == JsonToken.START_OBJECT) {
+                    temProximaPagina = lerTemProximaPagina(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return new JikanPagina(animes, temProximaPagina);
+    }
+
+    // Lê apenas o bloco de paginação, para o estágio de busca decidir se há próxima página.
+    // A Jikan envia "pagination" antes de "data", então a leitura normalmente para nos primeiros bytes.
+    public boolean temProximaPagina(byte[] response) throws IOException {
+        if (response == null || response.length == 0) {
+            return false;
+        }
+        try (JsonParser parser = jsonFactory.createParser(response)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return false;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String campo = parser.currentName();
+                JsonToken valor = parser.nextToken();
+                if ("pagination".equals(campo) && valor == JsonToken.START_OBJECT) {
+                    return lerTemProximaPagina(parser);
+                }
+                parser.skipChildren();
+            }
+        }
+        return false;
+    }
+
+    private boolean lerTemProximaPagina(JsonParser parser) throws IOException {
+        boolean temProxima = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String campo = parser.currentName();
+            JsonToken valor = parser.nextToken();
+            if ("has_next_page".equals(campo)) {
+                temProxima = valor == JsonToken.VALUE_TRUE;
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return temProxima;
+    }
+
+    // Chamado com o parser posicionado no START_OBJECT de um item de "data"
+    private JikanAnime lerAnime(JsonParser parser) throws IOException {
+        Long malId = null;
+        String titulo = null;
+        String sinopse = null;
+        Integer episodios = null;
+        String imagemUrl = null;
+        String status = null;
+        LocalDate dataLancamento = null;
+        List<String> generos = new ArrayList<>();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String campo = parser.currentName();
+            JsonToken valor = parser.nextToken();
+            switch (campo) {
+                case "mal_id" -> malId = valor == JsonToken.VALUE_NUMBER_INT ? parser.getLongValue() : null;
+                case "title" -> titulo = texto(parser);
+                case "synopsis" -> sinopse = texto(parser);
+                case "episodes" -> episodios = valor == JsonToken.VALUE_NUMBER_INT ? parser.getIntValue() : null;
+                case "status" -> status = texto(parser);
+                case "images" -> imagemUrl = lerImagemUrl(parser);
+                case "aired" -> dataLancamento = parseDataLancamento(lerCampoTexto(parser, "from"));
+                case "genres" -> lerGeneros(parser, generos);
+                default -> parser.skipChildren();
+            }
+        }
+        return new JikanAnime(malId, titulo, sinopse, episodios, imagemUrl, status, dataLancamento, generos);
+    }
+
+    // images: { "jpg": { "image_url": ... }, "webp": {...} }
+    private String lerImagemUrl(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        String imagemUrl = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String campo = parser.currentName();
+            parser.nextToken();
+            if ("jpg".equals(campo)) {
+                imagemUrl = lerCampoTexto(parser, "image_url");
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return imagemUrl;
+    }
+
+    // genres: [ { "mal_id": 1, "type": "anime", "name": "Action", "url": ... }, ... ]
+    private void lerGeneros(JsonParser parser, List<String> generos) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            String nome = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String campo = parser.currentName();
+                parser.nextToken();
+                if ("name".equals(campo)) {
+                    nome = texto(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (nome != null && !nome.isEmpty()) {
+                generos.add(nome);
+            }
+        }
+    }
+
+    // Lê um único campo de texto de um objeto, pulando os demais
+    private String lerCampoTexto(JsonParser parser, String nomeCampo) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        String resultado = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String campo = parser.currentName();
+            parser.nextToken();
+            if (nomeCampo.equals(campo)) {
+                resultado = texto(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return resultado;
+    }
+
+    private static String texto(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_STRING) {
+            return parser.getText();
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    // "aired.from" normalmente vem em ISO-8601 ("2013-04-07T00:00:00+00:00"),
+    // mas alguns registros trazem apenas texto terminando com o ano.
+    static LocalDate parseDataLancamento(String airedString) {
+        if (airedString == null || airedString.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(airedString.substring(0, 10));
+        } catch (DateTimeParseException | StringIndexOutOfBoundsException e) {
+            String[] parts = airedString.split(" ");
+            String lastPart = parts[parts.length - 1];
+            if (lastPart.matches("\\d{4}")) {
+                return LocalDate.of(Integer.parseInt(lastPart), 1, 1);
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.seusanimes.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.seusanimes.dto.JikanAnime;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Resultados recentes da busca por título na Jikan, indexados pelo título normalizado.
+ *
+ * Guarda também os "não encontrados", com um TTL menor, para que erros de digitação
+ * e buscas repetidas não consumam o rate limit. Métricas em cache.gets?tag=cache:jikan.busca.
+ */
+@Component
+public class JikanBuscaCache {
+
+    // Resposta já registrada para um título: o anime encontrado ou, com anime nulo, "a Jikan não tem"
+    public record BuscaRegistrada(JikanAnime anime) {
+
+        public Optional<JikanAnime> resultado() {
+            return Optional.ofNullable(anime);
+        }
+    }
+
+    private final Cache<String, BuscaRegistrada> cache;
+
+    public JikanBuscaCache(ObjectProvider<MeterRegistry> meterRegistry,
+                           @Value("${app.external.search-cache.max-size:5000}") long maxSize,
+                           @Value("${app.external.search-cache.ttl-encontrado:12h}") Duration ttlEncontrado,
+                           @Value("${app.external.search-cache.ttl-nao-encontrado:30m}") Duration ttlNaoEncontrado) {
+        long encontradoNanos = ttlEncontrado.toNanos();
+        long naoEncontradoNanos = ttlNaoEncontrado.toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, BuscaRegistrada>() {
+                    @Override
+                    public long expireAfterCreate(String chave, BuscaRegistrada busca, long currentTime) {
+                        return busca.anime() != null ? encontradoNanos : naoEncontradoNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String chave, BuscaRegistrada busca, long currentTime, long currentDuration) {
+                        return expireAfterCreate(chave, busca, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String chave, BuscaRegistrada busca, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache, "jikan.busca"));
+    }
+
+    /**
+     * @return Vazio se o título ainda não foi buscado (ou expirou); senão a busca registrada,
+     *         cujo resultado() é vazio quando a Jikan não encontrou nada.
+     */
+    public Optional<BuscaRegistrada> buscar(String tituloNormalizado) {
+        return Optional.ofNullable(cache.getIfPresent(tituloNormalizado));
+    }
+
+    public void registrar(String tituloNormalizado, Optional<JikanAnime> resultado) {
+        cache.put(tituloNormalizado, new BuscaRegistrada(resultado.orElse(null)));
+    }
+
+    // Esvazia o cache e devolve quantas entradas havia (aproximado)
+    public long limpar() {
+        long removidas = cache.estimatedSize();
+        cache.invalidateAll();
+        cache.cleanUp();
+        return removidas;
+    }
+}
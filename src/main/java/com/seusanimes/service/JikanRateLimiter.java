@@ -0,0 +1,54 @@
+package com.seusanimes.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token bucket compartilhado por todas as chamadas à API Jikan
+ * (busca por título e importações), que aceita cerca de 3 requisições por segundo.
+ */
+@Component
+public class JikanRateLimiter {
+
+    private final double capacidade;
+    private final double tokensPorNano;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private double tokens;
+    private long ultimaRecarga;
+
+    public JikanRateLimiter(@Value("${app.external.api.requests-per-second:3}") double requisicoesPorSegundo) {
+        this.capacidade = requisicoesPorSegundo;
+        this.tokensPorNano = requisicoesPorSegundo / TimeUnit.SECONDS.toNanos(1);
+        this.tokens = requisicoesPorSegundo;
+        this.ultimaRecarga = System.nanoTime();
+    }
+
+    // Bloqueia até existir um token disponível e o consome
+    public void acquire() throws InterruptedException {
+        while (true) {
+            long espera;
+            lock.lock();
+            try {
+                recarregar();
+                if (tokens >= 1) {
+                    tokens -= 1;
+                    return;
+                }
+                espera = (long) Math.ceil((1 - tokens) / tokensPorNano);
+            } finally {
+                lock.unlock();
+            }
+            TimeUnit.NANOSECONDS.sleep(espera);
+        }
+    }
+
+    private void recarregar() {
+        long agora = System.nanoTime();
+        tokens = Math.min(capacidade, tokens + (agora - ultimaRecarga) * tokensPorNano);
+        ultimaRecarga = agora;
+    }
+}
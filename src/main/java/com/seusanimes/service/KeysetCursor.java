@@ -0,0 +1,60 @@
+package com.seusanimes.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Cursor opaco da paginação por keyset: o tipo de ordenação e as chaves do último item
+ * da fatia anterior, em Base64 URL-safe. O cliente só devolve o valor recebido.
+ */
+public final class KeysetCursor {
+
+    private static final char SEPARADOR = '\u001F';
+
+    private final String ordem;
+    private final String[] chaves;
+
+    private KeysetCursor(String ordem, String[] chaves) {
+        this.ordem = ordem;
+        this.chaves = chaves;
+    }
+
+    public static String codificar(String ordem, Object... chaves) {
+        StringBuilder conteudo = new StringBuilder(ordem);
+        for (Object chave : chaves) {
+            conteudo.append(SEPARADOR).append(chave);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(conteudo.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException se o cursor estiver corrompido ou tiver sido gerado para outra ordenação.
+     */
+    public static KeysetCursor decodificar(String cursor, String ordemEsperada, int quantidadeDeChaves) {
+        String conteudo;
+        try {
+            conteudo = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido.", e);
+        }
+        String[] partes = conteudo.split(String.valueOf(SEPARADOR), -1);
+        if (partes.length != quantidadeDeChaves + 1 || !partes[0].equals(ordemEsperada)) {
+            throw new IllegalArgumentException("Cursor inválido para a ordenação '" + ordemEsperada + "'.");
+        }
+        String[] chaves = new String[quantidadeDeChaves];
+        System.arraycopy(partes, 1, chaves, 0, quantidadeDeChaves);
+        return new KeysetCursor(partes[0], chaves);
+    }
+
+    public String texto(int indice) {
+        return chaves[indice];
+    }
+
+    public long numero(int indice) {
+        try {
+            return Long.parseLong(chaves[indice]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor inválido.", e);
+        }
+    }
+}
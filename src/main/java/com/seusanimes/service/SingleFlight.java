@@ -0,0 +1,55 @@
+package com.seusanimes.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa chamadas concorrentes pela mesma chave: a primeira executa o trabalho na própria thread
+ * e as que chegarem enquanto ela estiver em andamento recebem o mesmo resultado (ou a mesma exceção).
+ * Nada fica guardado depois que a chamada termina; isto não é um cache.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> emAndamento = new ConcurrentHashMap<>();
+
+    public V executar(K chave, Supplier<V> trabalho) throws InterruptedException {
+        CompletableFuture<V> novo = new CompletableFuture<>();
+        CompletableFuture<V> existente = emAndamento.putIfAbsent(chave, novo);
+        if (existente != null) {
+            return aguardar(existente);
+        }
+        try {
+            V resultado = trabalho.get();
+            novo.complete(resultado);
+            return resultado;
+        } catch (RuntimeException | Error e) {
+            novo.completeExceptionally(e);
+            throw e;
+        } finally {
+            emAndamento.remove(chave, novo);
+        }
+    }
+
+    // Quantidade de chaves com trabalho em andamento
+    public int emAndamento() {
+        return emAndamento.size();
+    }
+
+    private V aguardar(CompletableFuture<V> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (causa instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(causa);
+        }
+    }
+}
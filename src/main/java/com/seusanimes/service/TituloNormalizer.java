@@ -0,0 +1,32 @@
+package com.seusanimes.service;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Forma canônica de um título para comparações: minúsculas, sem acentos e com espaços colapsados.
+ * "  Shingeki no  Kyojin " e "shingeki no kyojin" viram a mesma chave.
+ */
+public final class TituloNormalizer {
+
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+    private static final Pattern ESPACOS = Pattern.compile("\\s+");
+    private static final Pattern NAO_ALFANUMERICO = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private TituloNormalizer() {
+    }
+
+    public static String normalizar(String titulo) {
+        if (titulo == null) {
+            return "";
+        }
+        String semAcentos = ACENTOS.matcher(Normalizer.normalize(titulo, Normalizer.Form.NFD)).replaceAll("");
+        return ESPACOS.matcher(semAcentos.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    // Como normalizar, mas com pontuação virando espaço: "Re:Zero - Kara" -> "re zero kara"
+    public static String normalizarPalavras(String titulo) {
+        return NAO_ALFANUMERICO.matcher(normalizar(titulo)).replaceAll(" ").trim();
+    }
+}
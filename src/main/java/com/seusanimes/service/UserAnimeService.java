@@ -1,15 +1,20 @@
 package com.seusanimes.service;
 
-import com.seusanimes.model.User;
+import com.seusanimes.dto.CursorPage;
+import com.seusanimes.dto.VersaoConteudo;
+import com.seusanimes.event.PopularidadeAlteradaEvent;
 import com.seusanimes.model.Anime;
 import com.seusanimes.model.UserAnime;
 import com.seusanimes.model.AnimeStatus; // Importação do Enum
 
+import com.seusanimes.repository.ProjecaoRepository;
 import com.seusanimes.repository.UserAnimeRepository;
 import com.seusanimes.repository.UserRepository; // Se não estiver importado
 import com.seusanimes.repository.AnimeRepository; // Se não estiver importado
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional; // Para operações transacionais
 
@@ -24,24 +29,28 @@ public class UserAnimeService {
     private final UserAnimeRepository userAnimeRepository;
     private final UserRepository userRepository; // Injetar se precisar buscar User aqui
     private final AnimeRepository animeRepository; // Injetar se precisar buscar Anime aqui
+    private final ApplicationEventPublisher eventPublisher; // Avisa o autocomplete quando a popularidade muda
+    private final ProjecaoRepository projecaoRepository; // ?fields= sem carregar UserAnime/Anime
 
     @Autowired
     public UserAnimeService(UserAnimeRepository userAnimeRepository,
                             UserRepository userRepository,
-                            AnimeRepository animeRepository) {
+                            AnimeRepository animeRepository,
+                            ApplicationEventPublisher eventPublisher,
+                            ProjecaoRepository projecaoRepository) {
         this.userAnimeRepository = userAnimeRepository;
         this.userRepository = userRepository;
         this.animeRepository = animeRepository;
+        this.eventPublisher = eventPublisher;
+        this.projecaoRepository = projecaoRepository;
     }
 
     @Transactional // Garante que a operação seja atômica
     public UserAnime addOrUpdateUserAnime(Long userId, Long animeId, AnimeStatus status) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("Usuário não encontrado com ID: " + userId));
         Anime anime = animeRepository.findById(animeId)
                 .orElseThrow(() -> new RuntimeException("Anime não encontrado com ID: " + animeId));
 
-        Optional<UserAnime> existingUserAnime = userAnimeRepository.findByUserAndAnime(user, anime);
+        Optional<UserAnime> existingUserAnime = userAnimeRepository.findByUserIdAndAnimeId(userId, animeId);
 
         UserAnime userAnime;
         if (existingUserAnime.isPresent()) {
@@ -52,12 +61,15 @@ public class UserAnimeService {
             // userAnime.setEpisodesWatched(0); // Exemplo: resetar episódios
         } else {
             userAnime = new UserAnime();
-            userAnime.setUser(user);
+            // O id vem do token já autenticado: uma referência basta para gravar a FK, sem SELECT em users
+            userAnime.setUser(userRepository.getReferenceById(userId));
             userAnime.setAnime(anime);
             userAnime.setStatus(status);
             userAnime.setScore(0); // Valor inicial
             userAnime.setEpisodesWatched(0); // Valor inicial
+            eventPublisher.publishEvent(new PopularidadeAlteradaEvent(animeId, 1));
         }
+        userRepository.incrementarVersaoDaLista(userId);
         return userAnimeRepository.save(userAnime);
     }
 
@@ -75,6 +87,7 @@ public class UserAnimeService {
         if (episodesWatched != null) {
             userAnime.setEpisodesWatched(episodesWatched);
         }
+        userRepository.incrementarVersaoDaLista(userId);
         return userAnimeRepository.save(userAnime);
     }
 
@@ -83,32 +96,60 @@ public class UserAnimeService {
         Optional<UserAnime> userAnimeOptional = userAnimeRepository.findByUserIdAndId(userId, userAnimeId);
         if (userAnimeOptional.isPresent()) {
             userAnimeRepository.delete(userAnimeOptional.get());
+            userRepository.incrementarVersaoDaLista(userId);
+            eventPublisher.publishEvent(new PopularidadeAlteradaEvent(userAnimeOptional.get().getAnime().getId(), -1));
             return true;
         }
         return false;
     }
 
+    /**
+     * ETag da lista do usuário: versão da lista (inclusões, alterações e remoções) mais a última
+     * alteração dos animes e categorias que aparecem nela. Duas consultas agregadas, nenhuma entidade carregada.
+     *
+     * @param variante Distingue representações da mesma lista (ex.: o formato, "-cbor"); vazio para JSON.
+     */
+    @Transactional(readOnly = true)
+    public String etagDaLista(Long userId, String variante) {
+        long versaoDaLista = userRepository.buscarVersaoDaLista(userId).orElse(0L);
+        VersaoConteudo conteudo = userAnimeRepository.versaoDaLista(userId);
+        return conteudo.etag("u" + userId + variante + "-" + versaoDaLista);
+    }
+
     public List<UserAnime> getUserAnimeList(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("Usuário não encontrado com ID: " + userId));
-        return userAnimeRepository.findByUser(user);
+        return userAnimeRepository.findByUserId(userId);
     }
 
     public List<UserAnime> getUserAnimeListByStatus(Long userId, AnimeStatus status) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("Usuário não encontrado com ID: " + userId));
-        return userAnimeRepository.findByUserAndStatus(user, status);
+        return userAnimeRepository.findByUserIdAndStatus(userId, status);
+    }
+
+    // Lista do usuário só com os campos pedidos em ?fields= (nomes de UserAnimeResponse)
+    public List<Map<String, Object>> getUserAnimeList(Long userId, AnimeStatus status, List<String> campos) {
+        return projecaoRepository.listarUserAnimes(userId, status, campos);
+    }
+
+    // Lista do usuário por cursor (keyset sobre o id da entrada), opcionalmente filtrada por status
+    public CursorPage<UserAnime> getUserAnimeListPorCursor(Long userId, AnimeStatus status, String cursor, int tamanho) {
+        long depoisDe = cursor == null ? 0L : KeysetCursor.decodificar(cursor, "id", 1).numero(0);
+        Limit limite = Limit.of(tamanho + 1); // um a mais para saber se há próxima fatia
+        List<UserAnime> entradas = status != null
+                ? userAnimeRepository.findByUserIdAndStatusAndIdGreaterThanOrderByIdAsc(userId, status, depoisDe, limite)
+                : userAnimeRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(userId, depoisDe, limite);
+
+        boolean temMais = entradas.size() > tamanho;
+        List<UserAnime> fatia = temMais ? entradas.subList(0, tamanho) : entradas;
+        String proximoCursor = temMais ? KeysetCursor.codificar("id", fatia.get(fatia.size() - 1).getId()) : null;
+        return new CursorPage<>(List.copyOf(fatia), proximoCursor, temMais);
     }
 
     public long countUserAnimesByStatus(Long userId, AnimeStatus status) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("Usuário não encontrado com ID: " + userId));
-        return userAnimeRepository.countByUserAndStatus(user, status);
+        return userAnimeRepository.countByUserIdAndStatus(userId, status);
     }
 
     // NOVO MÉTODO para obter as contagens de status
-    public Map<AnimeStatus, Long> getAnimeStatusCountsForUser(String username) {
-        List<Object[]> results = userAnimeRepository.countAnimesByStatusForUser(username);
+    public Map<AnimeStatus, Long> getAnimeStatusCountsForUser(Long userId) {
+        List<Object[]> results = userAnimeRepository.countAnimesByStatusForUser(userId);
         Map<AnimeStatus, Long> statusCounts = new HashMap<>();
         for (Object[] result : results) {
             AnimeStatus status = (AnimeStatus) result[0];
@@ -3,6 +3,7 @@ package com.seusanimes.service;
  
 import com.seusanimes.model.User;
 import com.seusanimes.repository.UserRepository;
+import com.seusanimes.security.CustomUserDetailsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.security.crypto.password.PasswordEncoder; // Vamos precisar disso para criptografar senhas
@@ -13,12 +14,15 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder; // Usaremos para criptografar senhas
+    private final CustomUserDetailsService userDetailsService; // Cache de UserDetails usado na autenticação
 
     // Injeção de dependência via construtor (forma recomendada)
     @Autowired
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                       CustomUserDetailsService userDetailsService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userDetailsService = userDetailsService;
     }
 
     /**
@@ -42,9 +46,15 @@ public class UserService {
         // 2. Criptografar a senha antes de salvar
         // IMPORTANTÍSSIMO: NUNCA salve senhas em texto puro!
         user.setPassword(passwordEncoder.encode(user.getPassword()));
+        // O corpo do registro vem do cliente: o papel nunca é aceito dele
+        user.setRole("USER");
 
         // 3. Salvar o usuário no banco de dados
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+
+        // 4. Garante que o cache de autenticação não sirva uma versão antiga do usuário
+        userDetailsService.evictUser(savedUser.getUsername());
+        return savedUser;
     }
 
     /**
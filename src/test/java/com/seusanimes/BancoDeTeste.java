@@ -0,0 +1,44 @@
+package com.seusanimes;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * PostgreSQL embutido compartilhado pelos testes de integração: sobe uma vez por JVM e é
+ * encerrado no shutdown. Cada teste aponta o datasource para ele com registrar().
+ */
+public final class BancoDeTeste {
+
+    private static EmbeddedPostgres postgres;
+
+    private BancoDeTeste() {
+    }
+
+    public static void registrar(DynamicPropertyRegistry registry) {
+        EmbeddedPostgres banco = iniciar();
+        registry.add("spring.datasource.url", () -> banco.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    private static synchronized EmbeddedPostgres iniciar() {
+        if (postgres == null) {
+            try {
+                postgres = EmbeddedPostgres.builder().start();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Falha ao iniciar o PostgreSQL embutido.", e);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    postgres.close();
+                } catch (IOException e) {
+                    System.err.println("BancoDeTeste: falha ao encerrar o PostgreSQL embutido: " + e.getMessage());
+                }
+            }));
+        }
+        return postgres;
+    }
+}
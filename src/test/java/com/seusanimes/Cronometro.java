@@ -0,0 +1,27 @@
+package com.seusanimes;
+
+import java.util.Arrays;
+
+/**
+ * Medição dos benchmarks (@Tag("benchmark")): algumas execuções de aquecimento, descartadas,
+ * e a mediana das seguintes, para que um GC ou uma compilação do JIT no meio não distorça o número.
+ */
+public final class Cronometro {
+
+    private Cronometro() {
+    }
+
+    public static double medianaEmMs(int aquecimento, int medicoes, Runnable tarefa) {
+        for (int i = 0; i < aquecimento; i++) {
+            tarefa.run();
+        }
+        long[] tempos = new long[medicoes];
+        for (int i = 0; i < medicoes; i++) {
+            long inicio = System.nanoTime();
+            tarefa.run();
+            tempos[i] = System.nanoTime() - inicio;
+        }
+        Arrays.sort(tempos);
+        return tempos[medicoes / 2] / 1_000_000.0;
+    }
+}
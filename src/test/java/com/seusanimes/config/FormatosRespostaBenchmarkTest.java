@@ -0,0 +1,232 @@
+package com.seusanimes.config;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seusanimes.BancoDeTeste;
+import com.seusanimes.Cronometro;
+import com.seusanimes.dto.CursorPage;
+import com.seusanimes.model.Anime;
+import com.seusanimes.model.Categoria;
+import com.seusanimes.repository.CategoriaRepository;
+import com.seusanimes.security.AuthenticatedUser;
+import com.seusanimes.service.AnimeService;
+import com.seusanimes.service.CategoriaRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Custo e tamanho de cada formato de resposta (JSON, CBOR, Smile) numa página de 100 animes de
+ * GET /api/animes/cursor: bytes no corpo, com e sem gzip, tempo para serializar e desserializar a página com
+ * os ObjectMappers dos conversores, e latência da requisição inteira. Fora do mvn test; roda com mvn test -Pbenchmark.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class FormatosRespostaBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(FormatosRespostaBenchmarkTest.class);
+
+    private static final int ANIMES = 100;
+
+    @DynamicPropertySource
+    static void banco(DynamicPropertyRegistry registry) {
+        BancoDeTeste.registrar(registry);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileConverter;
+    @Autowired
+    private AnimeService animeService;
+    @Autowired
+    private CategoriaRegistry categoriaRegistry;
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<FormatoResposta, ObjectMapper> mappers = new EnumMap<>(FormatoResposta.class);
+
+    @BeforeAll
+    void popularCatalogo() {
+        mappers.put(FormatoResposta.JSON, objectMapper);
+        mappers.put(FormatoResposta.CBOR, cborConverter.getObjectMapper());
+        mappers.put(FormatoResposta.SMILE, smileConverter.getObjectMapper());
+
+        List<Categoria> generos = List.of("Formatos Ação", "Formatos Aventura", "Formatos Comédia", "Formatos Drama").stream()
+                .map(nome -> categoriaRepository.findById(categoriaRegistry.resolverId(nome)).orElseThrow())
+                .toList();
+        // Anime típico do catálogo: sinopse de um parágrafo, imagem, data e dois ou três gêneros
+        for (int i = 0; i < ANIMES; i++) {
+            Anime anime = new Anime();
+            anime.setTitulo(String.format("Formatos Anime %03d", i));
+            anime.setSinopse(sinopse(new Random(i)));
+            anime.setEpisodios(12 + i % 13);
+            anime.setImagemUrl("https://cdn.myanimelist.net/images/anime/" + (1000 + i) + "/" + (90000 + i) + ".jpg");
+            anime.setStatus(i % 5 == 0 ? "Currently Airing" : "Finished Airing");
+            anime.setAnoLancamento(LocalDate.of(2000 + i % 25, 1 + i % 12, 1 + i % 28));
+            anime.setCategorias(Set.of(generos.get(i % 4), generos.get((i + 1) % 4), generos.get((i + 2) % 4)));
+            animeService.save(anime);
+        }
+    }
+
+    @AfterAll
+    void limparCatalogo() {
+        // Direto no banco: os índices em memória não são usados pelos benchmarks
+        jdbcTemplate.update("DELETE FROM anime_categoria WHERE anime_id IN (SELECT id FROM animes WHERE titulo LIKE 'Formatos Anime %')");
+        jdbcTemplate.update("DELETE FROM animes WHERE titulo LIKE 'Formatos Anime %'");
+    }
+
+    @Test
+    void tamanhoECustoDeCadaFormato() throws Exception {
+        JavaType tipoDaPagina = objectMapper.getTypeFactory()
+                .constructParametricType(CursorPage.class, Anime.class);
+        Map<FormatoResposta, Integer> tamanhos = new EnumMap<>(FormatoResposta.class);
+        Object referencia = null;
+        Map<FormatoResposta, Double> requisicoes = latenciaDasRequisicoes();
+
+        for (FormatoResposta formato : FormatoResposta.values()) {
+            ObjectMapper mapper = mappers.get(formato);
+            byte[] corpo = requisitar(formato);
+            CursorPage<Anime> pagina = mapper.readValue(corpo, tipoDaPagina);
+
+            double serializar = Cronometro.medianaEmMs(200, 500, () -> escrever(mapper, pagina));
+            double desserializar = Cronometro.medianaEmMs(200, 500, () -> ler(mapper, corpo, tipoDaPagina));
+            tamanhos.put(formato, corpo.length);
+
+            logger.info("FormatosRespostaBenchmarkTest: {} ({} animes): {} bytes, {} com gzip; "
+                            + "serializar {} ms, desserializar {} ms, requisição {} ms (medianas)",
+                    formato, pagina.itens().size(), corpo.length, gzip(corpo).length,
+                    String.format("%.3f", serializar), String.format("%.3f", desserializar), String.format("%.2f", requisicoes.get(formato)));
+
+            // Mesmo modelo de dados em todos os formatos
+            Object conteudo = objectMapper.valueToTree(pagina);
+            if (referencia == null) {
+                referencia = conteudo;
+            }
+            assertThat(conteudo).isEqualTo(referencia);
+            assertThat(pagina.itens()).hasSize(ANIMES);
+        }
+
+        assertThat(tamanhos.get(FormatoResposta.CBOR)).isLessThan(tamanhos.get(FormatoResposta.JSON));
+        assertThat(tamanhos.get(FormatoResposta.SMILE)).isLessThan(tamanhos.get(FormatoResposta.JSON));
+    }
+
+    // Umas 60 palavras sorteadas: texto que não se repete entre animes, para o gzip não parecer melhor do que é
+    private static String sinopse(Random sorteio) {
+        String[] palavras = {"estudantes", "cidade", "segredo", "antigo", "episódio", "história", "guerreiro", "reino",
+                "escola", "amizade", "rival", "torneio", "demônio", "espada", "viagem", "família", "mistério", "poder",
+                "destino", "robô", "piloto", "ilha", "tripulação", "tesouro", "magia", "academia", "herói", "vilão"};
+        StringBuilder texto = new StringBuilder();
+        for (int i = 0; i < 60; i++) {
+            texto.append(i == 0 ? "" : " ").append(palavras[sorteio.nextInt(palavras.length)]);
+        }
+        return texto.append('.').toString();
+    }
+
+    // Requisições intercaladas entre os formatos, para que o aquecimento do resto da aplicação (JIT, cache
+    // do banco) não favoreça quem é medido por último
+    private Map<FormatoResposta, Double> latenciaDasRequisicoes() {
+        FormatoResposta[] formatos = FormatoResposta.values();
+        int medicoes = 100;
+        long[][] tempos = new long[formatos.length][medicoes];
+        for (int rodada = -50; rodada < medicoes; rodada++) {
+            for (int f = 0; f < formatos.length; f++) {
+                long inicio = System.nanoTime();
+                requisitar(formatos[f]);
+                if (rodada >= 0) {
+                    tempos[f][rodada] = System.nanoTime() - inicio;
+                }
+            }
+        }
+        Map<FormatoResposta, Double> medianas = new EnumMap<>(FormatoResposta.class);
+        for (int f = 0; f < formatos.length; f++) {
+            Arrays.sort(tempos[f]);
+            medianas.put(formatos[f], tempos[f][medicoes / 2] / 1_000_000.0);
+        }
+        return medianas;
+    }
+
+    private byte[] requisitar(FormatoResposta formato) {
+        try {
+            return mockMvc.perform(get("/api/animes/cursor").param("size", String.valueOf(ANIMES))
+                            .accept(formato.getMediaType())
+                            .with(usuario()))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsByteArray();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] escrever(ObjectMapper mapper, Object valor) {
+        try {
+            return mapper.writeValueAsBytes(valor);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Object ler(ObjectMapper mapper, byte[] corpo, JavaType tipo) {
+        try {
+            return mapper.readValue(corpo, tipo);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] corpo) throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        try (GZIPOutputStream compactado = new GZIPOutputStream(saida)) {
+            compactado.write(corpo);
+        }
+        return saida.toByteArray();
+    }
+
+    private static RequestPostProcessor usuario() {
+        AuthenticatedUser usuario = new AuthenticatedUser(1L, "benchmark", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        return authentication(new UsernamePasswordAuthenticationToken(usuario, null, usuario.getAuthorities()));
+    }
+}
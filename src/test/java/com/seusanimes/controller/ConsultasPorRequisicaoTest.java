@@ -0,0 +1,170 @@
+package com.seusanimes.controller;
+
+import com.seusanimes.BancoDeTeste;
+import com.seusanimes.model.Anime;
+import com.seusanimes.model.AnimeStatus;
+import com.seusanimes.model.Categoria;
+import com.seusanimes.model.User;
+import com.seusanimes.repository.CategoriaRepository;
+import com.seusanimes.repository.UserRepository;
+import com.seusanimes.security.AuthenticatedUser;
+import com.seusanimes.service.AnimeService;
+import com.seusanimes.service.CatalogoRespostaCache;
+import com.seusanimes.service.CategoriaRegistry;
+import com.seusanimes.service.UserAnimeService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Quantidade de comandos SQL preparados pelo Hibernate em cada endpoint de leitura, serialização incluída
+ * (open-session-in-view: um N+1 apareceria durante o Jackson). Cada caso compara uma resposta pequena
+ * com uma grande: o número de consultas não pode crescer com a quantidade de linhas.
+ *
+ * Os caches (segundo nível e páginas pré-serializadas) são esvaziados antes de cada medição.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ConsultasPorRequisicaoTest {
+
+    private static final int ANIMES = 30;
+    private static final int ANIMES_DE_NICHO = 3;
+
+    @DynamicPropertySource
+    static void banco(DynamicPropertyRegistry registry) {
+        BancoDeTeste.registrar(registry);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private AnimeService animeService;
+    @Autowired
+    private UserAnimeService userAnimeService;
+    @Autowired
+    private CategoriaRegistry categoriaRegistry;
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CatalogoRespostaCache catalogoRespostaCache;
+
+    private AuthenticatedUser colecionador;
+    private AuthenticatedUser iniciante;
+
+    @BeforeAll
+    void popularCatalogo() {
+        Categoria acao = categoriaRepository.findById(categoriaRegistry.resolverId("Consultas Ação")).orElseThrow();
+        Categoria drama = categoriaRepository.findById(categoriaRegistry.resolverId("Consultas Drama")).orElseThrow();
+        Categoria nicho = categoriaRepository.findById(categoriaRegistry.resolverId("Consultas Nicho")).orElseThrow();
+
+        User usuarioComLista = usuario("colecionador");
+        User usuarioComPoucos = usuario("iniciante");
+        for (int i = 0; i < ANIMES; i++) {
+            Anime anime = new Anime();
+            anime.setTitulo(String.format("Consultas Anime %02d", i));
+            anime.setSinopse("Sinopse " + i);
+            anime.setEpisodios(12);
+            anime.setStatus("Finished Airing");
+            anime.setAnoLancamento(LocalDate.of(2010 + i % 5, 1 + i % 12, 1));
+            anime.setCategorias(i < ANIMES_DE_NICHO ? Set.of(acao, drama, nicho) : Set.of(acao, drama));
+            Long animeId = animeService.save(anime).getId();
+
+            userAnimeService.addOrUpdateUserAnime(usuarioComLista.getId(), animeId, AnimeStatus.WATCHING);
+            if (i < ANIMES_DE_NICHO) {
+                userAnimeService.addOrUpdateUserAnime(usuarioComPoucos.getId(), animeId, AnimeStatus.WATCHING);
+            }
+        }
+        colecionador = principal(usuarioComLista);
+        iniciante = principal(usuarioComPoucos);
+    }
+
+    @Test
+    void listagemPaginadaNaoCresceComOTamanhoDaPagina() throws Exception {
+        long pequena = consultas(get("/api/animes").param("size", "3"), colecionador);
+        long grande = consultas(get("/api/animes").param("size", "25"), colecionador);
+
+        // página + contagem + categorias em lote
+        assertThat(grande).isEqualTo(pequena).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void buscaPorTituloNaoCresceComOTamanhoDaPagina() throws Exception {
+        long pequena = consultas(get("/api/animes/search").param("q", "Consultas Anime").param("size", "3"), colecionador);
+        long grande = consultas(get("/api/animes/search").param("q", "Consultas Anime").param("size", "25"), colecionador);
+
+        // ids ranqueados + contagem + animes da página + categorias em lote
+        assertThat(grande).isEqualTo(pequena).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void buscaPorGeneroNaoCresceComAQuantidadeDeAnimes() throws Exception {
+        long poucos = consultas(get("/api/animes/genre/{genre}", "Consultas Nicho"), colecionador);
+        long muitos = consultas(get("/api/animes/genre/{genre}", "Consultas Ação"), colecionador);
+
+        // animes pelos ids do índice + categorias em lote
+        assertThat(muitos).isEqualTo(poucos).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void listaDoUsuarioNaoCresceComAQuantidadeDeItens() throws Exception {
+        long poucos = consultas(get("/api/user-animes"), iniciante);
+        long muitos = consultas(get("/api/user-animes"), colecionador);
+
+        // duas consultas do ETag + lista com o anime + categorias em lote
+        assertThat(muitos).isEqualTo(poucos).isLessThanOrEqualTo(4);
+    }
+
+    private long consultas(MockHttpServletRequestBuilder requisicao, AuthenticatedUser usuario) throws Exception {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        catalogoRespostaCache.limpar();
+        sessionFactory.getCache().evictAllRegions();
+        Statistics estatisticas = sessionFactory.getStatistics();
+        estatisticas.clear();
+
+        mockMvc.perform(requisicao.with(authentication(
+                        new UsernamePasswordAuthenticationToken(usuario, null, usuario.getAuthorities()))))
+                .andExpect(status().isOk());
+        return estatisticas.getPrepareStatementCount();
+    }
+
+    private User usuario(String nome) {
+        User user = new User();
+        user.setUsername("consultas-" + nome);
+        user.setEmail(nome + "@consultas.test");
+        user.setPassword("{noop}senha");
+        user.setRole("USER");
+        return userRepository.save(user);
+    }
+
+    private static AuthenticatedUser principal(User user) {
+        return new AuthenticatedUser(user.getId(), user.getUsername(), List.of(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+}
@@ -0,0 +1,130 @@
+package com.seusanimes.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seusanimes.BancoDeTeste;
+import com.seusanimes.security.AuthenticatedUser;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Criação de 10 mil animes pela API: um POST /api/animes por anime contra um único POST /api/animes/lote
+ * (sequência em blocos de 50 + batches JDBC). Fora do mvn test; roda com mvn test -Pbenchmark.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class LoteAnimesBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoteAnimesBenchmarkTest.class);
+
+    private static final int QUANTIDADE = 10_000;
+    // Aquecimento (JIT, pool de conexões, caches do Hibernate) antes de cada medição
+    private static final int AQUECIMENTO = 200;
+
+    @DynamicPropertySource
+    static void banco(DynamicPropertyRegistry registry) {
+        BancoDeTeste.registrar(registry);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterAll
+    void limparCatalogo() {
+        // Direto no banco: os índices em memória não são usados pelos benchmarks
+        jdbcTemplate.update("DELETE FROM animes WHERE titulo LIKE 'Lote Benchmark %'");
+    }
+
+    @Test
+    void loteContraUmPorVez() throws Exception {
+        for (Map<String, Object> anime : animes("aquecimento individual", AQUECIMENTO)) {
+            criarUm(anime);
+        }
+        criarEmLote(animes("aquecimento lote", AQUECIMENTO));
+
+        List<Map<String, Object>> individuais = animes("individual", QUANTIDADE);
+        long inicio = System.nanoTime();
+        for (Map<String, Object> anime : individuais) {
+            criarUm(anime);
+        }
+        long umPorVez = (System.nanoTime() - inicio) / 1_000_000;
+
+        List<Map<String, Object>> emLote = animes("lote", QUANTIDADE);
+        inicio = System.nanoTime();
+        JsonNode resposta = criarEmLote(emLote);
+        long lote = (System.nanoTime() - inicio) / 1_000_000;
+
+        logger.info("LoteAnimesBenchmarkTest: {} animes: um por vez {} ms, lote {} ms ({}x)",
+                QUANTIDADE, umPorVez, lote, String.format("%.1f", (double) umPorVez / Math.max(lote, 1)));
+        assertThat(resposta.get("criados").asInt()).isEqualTo(QUANTIDADE);
+        assertThat(lote).isLessThan(umPorVez);
+    }
+
+    private void criarUm(Map<String, Object> anime) throws Exception {
+        mockMvc.perform(post("/api/animes").with(usuario())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(anime)))
+                .andExpect(status().isCreated());
+    }
+
+    private JsonNode criarEmLote(List<Map<String, Object>> animes) throws Exception {
+        byte[] corpo = mockMvc.perform(post("/api/animes/lote").with(usuario())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(animes)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        return objectMapper.readTree(corpo);
+    }
+
+    private static List<Map<String, Object>> animes(String grupo, int quantidade) {
+        List<Map<String, Object>> animes = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            Map<String, Object> anime = new LinkedHashMap<>();
+            anime.put("titulo", "Lote Benchmark " + grupo + " " + i);
+            anime.put("sinopse", "Sinopse do anime " + i + " para medir a gravação.");
+            anime.put("episodios", 12 + i % 13);
+            anime.put("status", "Finished Airing");
+            anime.put("anoLancamento", (1990 + i % 35) + "-04-01");
+            animes.add(anime);
+        }
+        return animes;
+    }
+
+    private static RequestPostProcessor usuario() {
+        AuthenticatedUser usuario = new AuthenticatedUser(1L, "benchmark", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        return authentication(new UsernamePasswordAuthenticationToken(usuario, null, usuario.getAuthorities()));
+    }
+}
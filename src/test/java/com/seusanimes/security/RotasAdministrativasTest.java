@@ -0,0 +1,117 @@
+package com.seusanimes.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seusanimes.BancoDeTeste;
+import com.seusanimes.model.User;
+import com.seusanimes.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * /api/admin/** confere o papel no cadastro (via cache de UserDetails) em vez de confiar na claim roles:
+ * um ADMIN rebaixado no banco perde o acesso quando a cópia em cache expira, com o mesmo token.
+ * A expiração do cache é simulada com evictUser.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RotasAdministrativasTest {
+
+    private static final String ROTA_ADMINISTRATIVA = "/api/admin/cache/catalogo";
+
+    @DynamicPropertySource
+    static void banco(DynamicPropertyRegistry registry) {
+        BancoDeTeste.registrar(registry);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Test
+    void adminRebaixadoNoBancoPerdeOAcessoComOMesmoToken() throws Exception {
+        User admin = cadastrar("admin-rebaixado", "ADMIN");
+        String token = login(admin.getUsername());
+
+        mockMvc.perform(delete(ROTA_ADMINISTRATIVA).header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        admin.setRole("USER");
+        userRepository.save(admin);
+        userDetailsService.evictUser(admin.getUsername());
+
+        mockMvc.perform(delete(ROTA_ADMINISTRATIVA).header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+        // Fora de /api/admin o token continua valendo pelas próprias claims
+        mockMvc.perform(get("/api/user-animes").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void usuarioPromovidoNoBancoGanhaOAcessoSemNovoLogin() throws Exception {
+        User usuario = cadastrar("usuario-promovido", "USER");
+        String token = login(usuario.getUsername());
+
+        mockMvc.perform(delete(ROTA_ADMINISTRATIVA).header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+
+        usuario.setRole("ADMIN");
+        userRepository.save(usuario);
+        userDetailsService.evictUser(usuario.getUsername());
+
+        mockMvc.perform(delete(ROTA_ADMINISTRATIVA).header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void tokenDeContaRemovidaNaoAutenticaRotaAdministrativa() throws Exception {
+        User admin = cadastrar("admin-removido", "ADMIN");
+        String token = login(admin.getUsername());
+
+        userRepository.delete(admin);
+        userDetailsService.evictUser(admin.getUsername());
+
+        mockMvc.perform(delete(ROTA_ADMINISTRATIVA).header("Authorization", "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private User cadastrar(String username, String role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@admin.test");
+        user.setPassword(passwordEncoder.encode("senha-" + username));
+        user.setRole(role);
+        return userRepository.save(user);
+    }
+
+    private String login(String username) throws Exception {
+        String corpo = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("username", username, "password", "senha-" + username))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(corpo).get("token").asText();
+    }
+}
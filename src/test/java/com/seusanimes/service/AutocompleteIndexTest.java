@@ -0,0 +1,138 @@
+package com.seusanimes.service;
+
+import com.seusanimes.dto.AnimeSugestao;
+import com.seusanimes.event.AnimeAlteradoEvent;
+import com.seusanimes.event.AnimeRemovidoEvent;
+import com.seusanimes.event.PopularidadeAlteradaEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AutocompleteIndexTest {
+
+    // Sem repositórios: o índice é alimentado só pelos eventos
+    private static AutocompleteIndex indice(int maxCandidatos) {
+        return new AutocompleteIndex(null, null, maxCandidatos);
+    }
+
+    private static void indexar(AutocompleteIndex indice, long id, String titulo) {
+        indice.aoAlterarAnime(new AnimeAlteradoEvent(id, titulo, "https://img/" + id + ".jpg", null, null, Set.of(), null, null));
+    }
+
+    private static void popularidade(AutocompleteIndex indice, long id, int delta) {
+        indice.aoAlterarPopularidade(new PopularidadeAlteradaEvent(id, delta));
+    }
+
+    private static List<String> titulos(List<AnimeSugestao> sugestoes) {
+        return sugestoes.stream().map(AnimeSugestao::titulo).toList();
+    }
+
+    @Test
+    void prefixoComumIncluiTituloPopularQueVemPorUltimoNaOrdemAlfabetica() {
+        AutocompleteIndex indice = indice(3);
+        for (int i = 0; i < 20; i++) {
+            indexar(indice, i + 1, String.format("A%02d Anime", i));
+        }
+        indexar(indice, 100, "Azumanga Daioh");
+        popularidade(indice, 100, 50);
+        popularidade(indice, 5, 10);
+
+        List<AnimeSugestao> sugestoes = indice.sugerir("a", 3);
+
+        assertThat(titulos(sugestoes)).containsExactly("Azumanga Daioh", "A04 Anime", "A00 Anime");
+        assertThat(sugestoes.get(0).popularidade()).isEqualTo(50);
+        assertThat(sugestoes.get(0).imagemUrl()).isEqualTo("https://img/100.jpg");
+    }
+
+    @Test
+    void rankingIgualComPoucosOuMuitosCandidatos() {
+        AutocompleteIndex restrito = indice(2);
+        AutocompleteIndex amplo = indice(5000);
+        String[] titulos = {"Naruto", "Naruto Shippuden", "Nana", "Nichijou", "No Game No Life", "Noragami", "Kimi no Na wa"};
+        int[] listas = {7, 7, 3, 0, 12, 1, 9};
+        for (int i = 0; i < titulos.length; i++) {
+            for (AutocompleteIndex indice : List.of(restrito, amplo)) {
+                indexar(indice, i + 1, titulos[i]);
+                popularidade(indice, i + 1, listas[i]);
+            }
+        }
+
+        for (String prefixo : List.of("n", "na", "no", "nar", "k", "x")) {
+            assertThat(restrito.sugerir(prefixo, 4)).as(prefixo).isEqualTo(amplo.sugerir(prefixo, 4));
+        }
+        // Empate na popularidade: ordem alfabética do título
+        assertThat(titulos(amplo.sugerir("n", 4)))
+                .containsExactly("No Game No Life", "Kimi no Na wa", "Naruto", "Naruto Shippuden");
+    }
+
+    @Test
+    void casaSoNoInicioDePalavras() {
+        AutocompleteIndex indice = indice(5000);
+        indexar(indice, 1, "Shingeki no Kyōjin: The Final Season");
+
+        assertThat(titulos(indice.sugerir("shin", 5))).containsExactly("Shingeki no Kyōjin: The Final Season");
+        assertThat(titulos(indice.sugerir("KYO", 5))).hasSize(1);
+        assertThat(titulos(indice.sugerir("no ky", 5))).hasSize(1);
+        assertThat(titulos(indice.sugerir("kyojin the", 5))).hasSize(1);
+        assertThat(titulos(indice.sugerir("  Final ", 5))).hasSize(1);
+        assertThat(indice.sugerir("hingeki", 5)).isEmpty();
+        assertThat(indice.sugerir("yojin", 5)).isEmpty();
+        assertThat(indice.sugerir("shingeki kyojin", 5)).isEmpty();
+        assertThat(indice.sugerir("!!!", 5)).isEmpty();
+    }
+
+    @Test
+    void tituloAlteradoEReindexado() {
+        for (AutocompleteIndex indice : List.of(indice(0), indice(5000))) {
+            indexar(indice, 1, "Boku no Hero");
+            indexar(indice, 2, "Bleach");
+            popularidade(indice, 1, 4);
+
+            indexar(indice, 1, "My Hero Academia");
+
+            assertThat(indice.sugerir("boku", 5)).isEmpty();
+            assertThat(titulos(indice.sugerir("b", 5))).containsExactly("Bleach");
+            List<AnimeSugestao> sugestoes = indice.sugerir("hero", 5);
+            assertThat(titulos(sugestoes)).containsExactly("My Hero Academia");
+            // A popularidade pertence ao anime e sobrevive à troca de título
+            assertThat(sugestoes.get(0).popularidade()).isEqualTo(4);
+            assertThat(indice.tamanho()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void popularidadeReordenaAsSugestoes() {
+        for (AutocompleteIndex indice : List.of(indice(0), indice(5000))) {
+            indexar(indice, 1, "One Piece");
+            indexar(indice, 2, "One Punch Man");
+            popularidade(indice, 1, 2);
+            popularidade(indice, 2, 1);
+            assertThat(titulos(indice.sugerir("one", 5))).containsExactly("One Piece", "One Punch Man");
+
+            popularidade(indice, 1, -2);
+            popularidade(indice, 1, -1);
+
+            List<AnimeSugestao> sugestoes = indice.sugerir("one", 5);
+            assertThat(titulos(sugestoes)).containsExactly("One Punch Man", "One Piece");
+            // Nunca abaixo de zero
+            assertThat(sugestoes.get(1).popularidade()).isZero();
+        }
+    }
+
+    @Test
+    void animeRemovidoSaiDasSugestoes() {
+        for (AutocompleteIndex indice : List.of(indice(0), indice(5000))) {
+            indexar(indice, 1, "Monster");
+            indexar(indice, 2, "Mob Psycho 100");
+            popularidade(indice, 1, 3);
+
+            indice.aoRemoverAnime(new AnimeRemovidoEvent(1L));
+
+            assertThat(titulos(indice.sugerir("m", 5))).containsExactly("Mob Psycho 100");
+            assertThat(indice.tamanho()).isEqualTo(1);
+        }
+    }
+}
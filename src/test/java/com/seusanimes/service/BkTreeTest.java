@@ -0,0 +1,87 @@
+package com.seusanimes.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BkTreeTest {
+
+    @Test
+    void distanciaDeLevenshtein() {
+        assertThat(BkTree.distancia("naruto", "naruto")).isZero();
+        assertThat(BkTree.distancia("", "bleach")).isEqualTo(6);
+        assertThat(BkTree.distancia("bleach", "")).isEqualTo(6);
+        assertThat(BkTree.distancia("kyojin", "kyojn")).isEqualTo(1);
+        assertThat(BkTree.distancia("kyojin", "kyoujin")).isEqualTo(1);
+        assertThat(BkTree.distancia("kyojin", "kyojim")).isEqualTo(1);
+        // Transposição custa duas edições
+        assertThat(BkTree.distancia("naruto", "naruot")).isEqualTo(2);
+        assertThat(BkTree.distancia("kitten", "sitting")).isEqualTo(3);
+        assertThat(BkTree.distancia("sitting", "kitten")).isEqualTo(3);
+    }
+
+    @Test
+    void buscaDevolvePalavrasDentroDoRaioComADistancia() {
+        BkTree arvore = new BkTree();
+        for (String palavra : List.of("naruto", "boruto", "narutp", "bleach", "berserk", "baruto", "nana")) {
+            arvore.inserir(palavra);
+        }
+
+        assertThat(arvore.buscar("naruto", 0)).containsOnly(Map.entry("naruto", 0));
+        assertThat(arvore.buscar("naruto", 1)).containsOnly(
+                Map.entry("naruto", 0), Map.entry("narutp", 1), Map.entry("baruto", 1));
+        assertThat(arvore.buscar("naruto", 2)).containsOnly(
+                Map.entry("naruto", 0), Map.entry("narutp", 1), Map.entry("baruto", 1), Map.entry("boruto", 2));
+        assertThat(arvore.buscar("xyz", 1)).isEmpty();
+    }
+
+    @Test
+    void palavrasRepetidasEntramUmaVez() {
+        BkTree arvore = new BkTree();
+        arvore.inserir("naruto");
+        arvore.inserir("naruto");
+        arvore.inserir("bleach");
+
+        assertThat(arvore.tamanho()).isEqualTo(2);
+        assertThat(new BkTree().buscar("naruto", 2)).isEmpty();
+    }
+
+    @Test
+    void buscaComPodaIgualABuscaExaustiva() {
+        Random aleatorio = new Random(42);
+        BkTree arvore = new BkTree();
+        List<String> vocabulario = aleatorio.ints(2_000, 0, Integer.MAX_VALUE)
+                .mapToObj(semente -> palavra(new Random(semente)))
+                .distinct()
+                .toList();
+        vocabulario.forEach(arvore::inserir);
+
+        for (int i = 0; i < 200; i++) {
+            String procurada = palavra(aleatorio);
+            int raio = i % 3;
+            Map<String, Integer> esperado = new HashMap<>();
+            for (String palavra : vocabulario) {
+                int distancia = BkTree.distancia(palavra, procurada);
+                if (distancia <= raio) {
+                    esperado.put(palavra, distancia);
+                }
+            }
+            assertThat(arvore.buscar(procurada, raio)).as("%s (raio %d)", procurada, raio).isEqualTo(esperado);
+        }
+    }
+
+    // Palavras curtas num alfabeto pequeno, para haver muitos vizinhos próximos
+    private static String palavra(Random aleatorio) {
+        int tamanho = 3 + aleatorio.nextInt(5);
+        StringBuilder palavra = new StringBuilder(tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            palavra.append((char) ('a' + aleatorio.nextInt(4)));
+        }
+        return palavra.toString();
+    }
+}
@@ -0,0 +1,136 @@
+package com.seusanimes.service;
+
+import com.seusanimes.BancoDeTeste;
+import com.seusanimes.Cronometro;
+import com.seusanimes.model.Anime;
+import com.seusanimes.repository.AnimeRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Busca por título com 100 mil animes: a consulta antiga (upper(titulo) LIKE upper(?), o que o
+ * findByTituloContainingIgnoreCase gerava) contra a ranqueada com o índice de trigramas.
+ * Fora do mvn test; roda com mvn test -Pbenchmark.
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BuscaPorTituloBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(BuscaPorTituloBenchmarkTest.class);
+
+    private static final int QUANTIDADE = 100_000;
+    // Ids bem acima da sequência, para não esbarrar nos animes dos outros testes
+    private static final long PRIMEIRO_ID = 900_000_000L;
+
+    private static final String CONSULTA_ANTIGA =
+            "SELECT * FROM animes a WHERE upper(a.titulo) LIKE upper(:padrao) ESCAPE '\\' LIMIT 20";
+    private static final String CONTAGEM_ANTIGA =
+            "SELECT count(*) FROM animes a WHERE upper(a.titulo) LIKE upper(:padrao) ESCAPE '\\'";
+
+    @DynamicPropertySource
+    static void banco(DynamicPropertyRegistry registry) {
+        BancoDeTeste.registrar(registry);
+    }
+
+    @Autowired
+    private AnimeRepository animeRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String tituloRaro;
+
+    @BeforeAll
+    void popularCatalogo() {
+        // Títulos de duas palavras inventadas com sílabas sorteadas entre 100 ("Tsumiko Haruse", alguns com número
+        // de temporada): vocabulário grande como o de um catálogo real, mas com trechos comuns a muitos títulos
+        jdbcTemplate.update("""
+                WITH s AS (SELECT array_agg(c || v ORDER BY c, v) AS sil
+                           FROM unnest(string_to_array('k,s,t,n,h,m,y,r,w,g,z,d,b,p,f,j,ch,sh,ts,ry', ',')) AS c,
+                                unnest(ARRAY['a','i','u','e','o']) AS v)
+                INSERT INTO animes (id, titulo, ano, status)
+                SELECT ?::bigint + i,
+                       initcap(sil[1 + h1 % 100] || sil[1 + h1 / 100 % 100] || sil[1 + h1 / 10000 % 100]) || ' '
+                       || initcap(sil[1 + h2 % 100] || sil[1 + h2 / 100 % 100] || sil[1 + h2 / 10000 % 100])
+                       || CASE WHEN i % 4 = 0 THEN ' ' || (i % 7 + 2) ELSE '' END,
+                       1990 + i % 35,
+                       'Finished Airing'
+                FROM s, generate_series(1, ?) AS i,
+                     LATERAL (SELECT abs(hashint4(i))::bigint AS h1, abs(hashint4(-i))::bigint AS h2) AS sorteio
+                ON CONFLICT (titulo) DO NOTHING
+                """, PRIMEIRO_ID, QUANTIDADE);
+        jdbcTemplate.execute("ANALYZE animes");
+        tituloRaro = jdbcTemplate.queryForObject(
+                "SELECT titulo FROM animes WHERE id > ? ORDER BY id LIMIT 1 OFFSET 4242", String.class, PRIMEIRO_ID);
+    }
+
+    @AfterAll
+    void limparCatalogo() {
+        jdbcTemplate.update("DELETE FROM animes WHERE id > ?", PRIMEIRO_ID);
+        jdbcTemplate.execute("ANALYZE animes");
+    }
+
+    @Test
+    void consultaRanqueadaUsaOIndiceDeTrigramas() {
+        for (String termo : List.of(tituloRaro.toLowerCase(), "kashi", "evangelion")) {
+            String padrao = AnimeService.padraoContendo(termo);
+            String plano = explicar("SELECT * FROM animes a WHERE a.titulo ILIKE ? OR a.titulo % ? "
+                    + "ORDER BY (a.titulo ILIKE ?) DESC, similarity(a.titulo, ?) DESC, a.id LIMIT 20", padrao, termo, padrao, termo);
+            String planoAntigo = explicar(CONSULTA_ANTIGA.replace(":padrao", "?"), padrao);
+            logger.info("BuscaPorTituloBenchmarkTest: '{}', consulta antiga:\n{}", termo, planoAntigo);
+            logger.info("BuscaPorTituloBenchmarkTest: '{}', consulta ranqueada:\n{}", termo, plano);
+
+            assertThat(plano).as(termo).contains("idx_animes_titulo_trgm").doesNotContain("Seq Scan");
+            assertThat(planoAntigo).as(termo).contains("Seq Scan");
+        }
+    }
+
+    @Test
+    void latenciaDaConsultaAntigaContraARanqueada() {
+        // Título de um anime só, trecho comum a centenas de títulos e termo sem nenhum título
+        for (String termo : List.of(tituloRaro.toLowerCase(), "kashi", "evangelion")) {
+            String padrao = AnimeService.padraoContendo(termo);
+            double antiga = Cronometro.medianaEmMs(5, 30, () -> buscarComoAntes(padrao));
+            double ranqueada = Cronometro.medianaEmMs(5, 30,
+                    () -> animeRepository.buscarPorTituloRanqueado(termo, padrao, PageRequest.of(0, 20)));
+            logger.info("BuscaPorTituloBenchmarkTest: '{}' ({} animes): LIKE {} ms, ranqueada {} ms (mediana de 30)",
+                    termo, QUANTIDADE, String.format("%.2f", antiga), String.format("%.2f", ranqueada));
+        }
+    }
+
+    // Mesmo trabalho que a versão paginada fazia: a página e a contagem
+    private void buscarComoAntes(String padrao) {
+        List<?> pagina = entityManager.createNativeQuery(CONSULTA_ANTIGA, Anime.class)
+                .setParameter("padrao", padrao)
+                .getResultList();
+        Object total = entityManager.createNativeQuery(CONTAGEM_ANTIGA)
+                .setParameter("padrao", padrao)
+                .getSingleResult();
+        assertThat(total).isNotNull();
+        assertThat(pagina.size()).isLessThanOrEqualTo(20);
+    }
+
+    private String explicar(String sql, Object... parametros) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN (ANALYZE, BUFFERS) " + sql, String.class, parametros));
+    }
+}
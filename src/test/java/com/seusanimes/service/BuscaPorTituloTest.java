@@ -0,0 +1,114 @@
+package com.seusanimes.service;
+
+import com.seusanimes.BancoDeTeste;
+import com.seusanimes.model.Anime;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Busca por título (AnimeService.buscarPorTitulo) no PostgreSQL embutido, com o índice de trigramas:
+ * ordem de relevância, curingas do LIKE tratados como texto e recurso ao índice aproximado.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BuscaPorTituloTest {
+
+    @DynamicPropertySource
+    static void banco(DynamicPropertyRegistry registry) {
+        BancoDeTeste.registrar(registry);
+    }
+
+    @Autowired
+    private AnimeService animeService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void popularCatalogo() {
+        for (String titulo : List.of("A Lenda de Zeltrana", "Zeltrano", "Zeltrana Kai", "Zeltrana",
+                "Quorvex 100% Puro", "Qv 1000", "Quorvex a_b", "Qv axb", "Quorvex dir\\x", "Wexoplun")) {
+            Anime anime = new Anime();
+            anime.setTitulo(titulo);
+            animeService.save(anime);
+        }
+    }
+
+    private List<String> buscar(String termo) {
+        Page<Anime> pagina = animeService.buscarPorTitulo(termo, PageRequest.of(0, 20));
+        return pagina.getContent().stream().map(Anime::getTitulo).toList();
+    }
+
+    @Test
+    void quemContemOTermoVemAntesEDepoisOsParecidosPorSimilaridade() {
+        // Os três primeiros contêm "zeltrana" (do mais ao menos parecido com o termo); "Zeltrano" só é parecido
+        assertThat(buscar("zeltrana")).containsExactly("Zeltrana", "Zeltrana Kai", "A Lenda de Zeltrana", "Zeltrano");
+        assertThat(buscar("ZELTRANA KAI").get(0)).isEqualTo("Zeltrana Kai");
+    }
+
+    @Test
+    void paginasSeguemAMesmaOrdem() {
+        Page<Anime> segunda = animeService.buscarPorTitulo("zeltrana", PageRequest.of(1, 2));
+
+        assertThat(segunda.getContent()).extracting(Anime::getTitulo).containsExactly("A Lenda de Zeltrana", "Zeltrano");
+        assertThat(segunda.getTotalElements()).isEqualTo(4);
+    }
+
+    @Test
+    void curingasDoLikeSaoEscapados() {
+        assertThat(AnimeService.padraoContendo("100%")).isEqualTo("%100\\%%");
+        assertThat(AnimeService.padraoContendo("a_b")).isEqualTo("%a\\_b%");
+        assertThat(AnimeService.padraoContendo("dir\\x")).isEqualTo("%dir\\\\x%");
+        assertThat(AnimeService.padraoContendo("100\\%")).isEqualTo("%100\\\\\\%%");
+    }
+
+    @Test
+    void curingasNoTermoCasamSoComOProprioCaractere() {
+        // Sem o escape, "Qv 1000" e "Qv axb" (mais curtos) casariam primeiro como '%100%%' e '%a_b%'
+        assertThat(primeiroContendo("100%")).contains("Quorvex 100% Puro");
+        assertThat(primeiroContendo("a_b")).contains("Quorvex a_b");
+        assertThat(primeiroContendo("dir\\x")).contains("Quorvex dir\\x");
+        assertThat(primeiroContendo("%")).contains("Quorvex 100% Puro");
+        assertThat(primeiroContendo("a\\_b")).isEmpty();
+
+        assertThat(buscar("100%").get(0)).isEqualTo("Quorvex 100% Puro");
+        assertThat(buscar("a_b").get(0)).isEqualTo("Quorvex a_b");
+    }
+
+    @Test
+    void semResultadoNoBancoUsaOIndiceAproximado() {
+        // "Wezoplan" divide poucos trigramas com "Wexoplun" (nada no banco), mas está a duas edições dele
+        assertThat(buscar("Wezoplan")).containsExactly("Wexoplun");
+        assertThat(animeService.buscarPorTitulo("Wezoplan", List.of("titulo"), PageRequest.of(0, 20)).getContent())
+                .extracting(campos -> campos.get("titulo"))
+                .containsExactly("Wexoplun");
+        assertThat(buscar("Wezoplanqq")).isEmpty();
+    }
+
+    @Test
+    void similaridadeNaoPareceBarataParaOPlanejador() {
+        // Com o custo padrão, em tabelas grandes o planejador trocava o índice de trigramas por um Seq Scan
+        // (BuscaPorTituloBenchmarkTest)
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT procost FROM pg_proc WHERE proname IN ('similarity_op', 'similarity')", Float.class))
+                .containsOnly(100f);
+    }
+
+    private Optional<String> primeiroContendo(String trecho) {
+        return animeService.buscarPrimeiroPorTrechoDoTitulo(trecho).map(Anime::getTitulo);
+    }
+}
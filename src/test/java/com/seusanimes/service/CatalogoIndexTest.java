@@ -0,0 +1,158 @@
+package com.seusanimes.service;
+
+import com.seusanimes.event.AnimeAlteradoEvent;
+import com.seusanimes.event.AnimeRemovidoEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogoIndexTest {
+
+    private static final long ACAO = 1;
+    private static final long FANTASIA = 2;
+    private static final long ECCHI = 3;
+    private static final long COMEDIA = 4;
+
+    private CatalogoIndex indice;
+
+    @BeforeEach
+    void montarIndice() {
+        // Sem JdbcTemplate: o índice é alimentado só pelos eventos
+        indice = new CatalogoIndex(null);
+        indexar(1, 2015, "Finished Airing", ACAO, FANTASIA);
+        indexar(2, 2018, "Finished Airing", ACAO, FANTASIA, ECCHI);
+        indexar(3, 2020, "Currently Airing", ACAO);
+        indexar(4, 2012, "Finished Airing", FANTASIA, COMEDIA);
+        indexar(5, null, null, COMEDIA);
+        indexar(6, 2023, "Currently Airing");
+    }
+
+    private void indexar(long id, Integer ano, String status, Long... categoriaIds) {
+        indice.aoAlterarAnime(new AnimeAlteradoEvent(id, "Anime " + id, null, ano, status, Set.of(categoriaIds), null, null));
+    }
+
+    private List<Long> filtrar(CatalogoIndex.Filtro filtro) {
+        return CatalogoIndex.pagina(indice.filtrar(filtro), 0, 100);
+    }
+
+    @Test
+    void filtroVazioDevolveOCatalogoInteiro() {
+        assertThat(filtrar(new CatalogoIndex.Filtro(List.of(), List.of(), List.of(), null, null)))
+                .containsExactly(1L, 2L, 3L, 4L, 5L, 6L);
+    }
+
+    @Test
+    void todasAlgumaENenhumaCategoria() {
+        assertThat(filtrar(new CatalogoIndex.Filtro(List.of(ACAO, FANTASIA), List.of(), List.of(), null, null)))
+                .containsExactly(1L, 2L);
+        assertThat(filtrar(new CatalogoIndex.Filtro(List.of(), List.of(ECCHI, COMEDIA), List.of(), null, null)))
+                .containsExactly(2L, 4L, 5L);
+        assertThat(filtrar(new CatalogoIndex.Filtro(List.of(), List.of(), List.of(ACAO), null, null)))
+                .containsExactly(4L, 5L, 6L);
+        // Action E Fantasy SEM Ecchi
+        assertThat(filtrar(new CatalogoIndex.Filtro(List.of(ACAO, FANTASIA), List.of(), List.of(ECCHI), null, null)))
+                .containsExactly(1L);
+        assertThat(filtrar(new CatalogoIndex.Filtro(List.of(ACAO), List.of(FANTASIA, COMEDIA), List.of(ECCHI), null, null)))
+                .containsExactly(1L);
+        // Categoria que nenhum anime tem: nada em "todas", sem efeito em "nenhuma"
+        assertThat(filtrar(new CatalogoIndex.Filtro(List.of(ACAO, 99L), List.of(), List.of(), null, null))).isEmpty();
+        assertThat(filtrar(new CatalogoIndex.Filtro(List.of(), List.of(99L), List.of(), null, null))).isEmpty();
+        assertThat(filtrar(new CatalogoIndex.Filtro(List.of(ACAO), List.of(), List.of(99L), null, null)))
+                .containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void faixaDeAnosComPontasAbertasEFechadas() {
+        assertThat(filtrar(new CatalogoIndex.Filtro(List.of(), List.of(), List.of(), 2015, 2020)))
+                .containsExactly(1L, 2L, 3L);
+        assertThat(filtrar(new CatalogoIndex.Filtro(List.of(), List.of(), List.of(), 2018, null)))
+                .containsExactly(2L, 3L, 6L);
+        assertThat(filtrar(new CatalogoIndex.Filtro(List.of(), List.of(), List.of(), null, 2015)))
+                .containsExactly(1L, 4L);
+        assertThat(filtrar(new CatalogoIndex.Filtro(List.of(), List.of(), List.of(), 2016, 2017))).isEmpty();
+        assertThat(filtrar(new CatalogoIndex.Filtro(List.of(ACAO), List.of(), List.of(ECCHI), 2015, 2020)))
+                .containsExactly(1L, 3L);
+    }
+
+    @Test
+    void filtroPorStatus() {
+        assertThat(filtrar(new CatalogoIndex.Filtro(List.of(), List.of(), List.of(), null, null, "Currently Airing")))
+                .containsExactly(3L, 6L);
+        assertThat(filtrar(new CatalogoIndex.Filtro(List.of(ACAO), List.of(), List.of(), null, null, "Finished Airing")))
+                .containsExactly(1L, 2L);
+        assertThat(filtrar(new CatalogoIndex.Filtro(List.of(), List.of(), List.of(), null, null, "Not yet aired"))).isEmpty();
+    }
+
+    @Test
+    void atualizacaoTiraOAnimeDasCategoriasEAnosAntigos() {
+        indexar(2, 2021, "Finished Airing", COMEDIA);
+
+        assertThat(filtrar(new CatalogoIndex.Filtro(List.of(ACAO), List.of(), List.of(), null, null)))
+                .containsExactly(1L, 3L);
+        assertThat(filtrar(new CatalogoIndex.Filtro(List.of(), List.of(ECCHI), List.of(), null, null))).isEmpty();
+        assertThat(filtrar(new CatalogoIndex.Filtro(List.of(), List.of(), List.of(), 2018, 2018))).isEmpty();
+        assertThat(filtrar(new CatalogoIndex.Filtro(List.of(COMEDIA), List.of(), List.of(), 2021, null)))
+                .containsExactly(2L);
+        assertThat(indice.indexacao(2L)).contains(new CatalogoIndex.Indexacao(2021, Set.of(COMEDIA)));
+    }
+
+    @Test
+    void animeRemovidoSaiDeTodosOsFiltros() {
+        indice.aoRemoverAnime(new AnimeRemovidoEvent(1L));
+
+        assertThat(filtrar(new CatalogoIndex.Filtro(List.of(), List.of(), List.of(), null, null)))
+                .containsExactly(2L, 3L, 4L, 5L, 6L);
+        assertThat(filtrar(new CatalogoIndex.Filtro(List.of(), List.of(), List.of(), 2015, 2015))).isEmpty();
+        assertThat(indice.indexacao(1L)).isEmpty();
+        // Remover de novo (ou um id nunca indexado) não faz nada
+        indice.aoRemoverAnime(new AnimeRemovidoEvent(1L));
+        indice.aoRemoverAnime(new AnimeRemovidoEvent(5_000L));
+        assertThat(indice.filtrar(new CatalogoIndex.Filtro(List.of(), List.of(), List.of(), null, null)).getCardinality())
+                .isEqualTo(5);
+    }
+
+    @Test
+    void indexacaoDevolveAnoECategorias() {
+        assertThat(indice.indexacao(2L)).contains(new CatalogoIndex.Indexacao(2018, Set.of(ACAO, FANTASIA, ECCHI)));
+        assertThat(indice.indexacao(5L)).contains(new CatalogoIndex.Indexacao(null, Set.of(COMEDIA)));
+        assertThat(indice.indexacao(6L)).contains(new CatalogoIndex.Indexacao(2023, Set.of()));
+        assertThat(indice.indexacao(7L)).isEmpty();
+        assertThat(indice.indexacao(null)).isEmpty();
+        assertThat(indice.indexacao(-1L)).isEmpty();
+    }
+
+    @Test
+    void paginaPulaOsIdsAnteriores() {
+        RoaringBitmap ids = RoaringBitmap.bitmapOf(3, 10, 11, 500, 70_000, 70_001);
+
+        assertThat(CatalogoIndex.pagina(ids, 0, 2)).containsExactly(3L, 10L);
+        assertThat(CatalogoIndex.pagina(ids, 2, 3)).containsExactly(11L, 500L, 70_000L);
+        assertThat(CatalogoIndex.pagina(ids, 5, 3)).containsExactly(70_001L);
+        assertThat(CatalogoIndex.pagina(ids, 6, 3)).isEmpty();
+        assertThat(CatalogoIndex.pagina(new RoaringBitmap(), 0, 3)).isEmpty();
+    }
+
+    @Test
+    void facetasContamSoOsAnimesDoResultado() {
+        RoaringBitmap acao = indice.filtrar(new CatalogoIndex.Filtro(List.of(ACAO), List.of(), List.of(), null, null));
+
+        CatalogoIndex.Facetas facetas = indice.contarFacetas(acao);
+
+        assertThat(facetas.porCategoria()).isEqualTo(Map.of(ACAO, 3L, FANTASIA, 2L, ECCHI, 1L));
+        assertThat(facetas.porAno()).containsExactly(Map.entry(2015, 1L), Map.entry(2018, 1L), Map.entry(2020, 1L));
+        assertThat(facetas.porStatus()).isEqualTo(Map.of("Finished Airing", 2L, "Currently Airing", 1L));
+
+        // Depois de uma atualização a contagem segue os valores novos
+        indexar(3, 2015, "Finished Airing", ACAO, COMEDIA);
+        CatalogoIndex.Facetas atualizadas = indice.contarFacetas(acao);
+        assertThat(atualizadas.porCategoria()).isEqualTo(Map.of(ACAO, 3L, FANTASIA, 2L, ECCHI, 1L, COMEDIA, 1L));
+        assertThat(atualizadas.porAno()).containsExactly(Map.entry(2015, 2L), Map.entry(2018, 1L));
+        assertThat(atualizadas.porStatus()).isEqualTo(Map.of("Finished Airing", 3L));
+    }
+}
@@ -0,0 +1,84 @@
+package com.seusanimes.service;
+
+import com.seusanimes.event.AnimeAlteradoEvent;
+import com.seusanimes.event.AnimeRemovidoEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FuzzyTituloIndexTest {
+
+    private FuzzyTituloIndex indice;
+
+    @BeforeEach
+    void montarIndice() {
+        // Sem repositório: o índice é alimentado só pelos eventos
+        indice = new FuzzyTituloIndex(null);
+        indexar(1, "Shingeki no Kyojin");
+        indexar(2, "Naruto");
+        indexar(3, "Naruto Shippuden");
+        indexar(4, "Boruto: Naruto Next Generations");
+        indexar(5, "Kimi no Na wa");
+    }
+
+    private void indexar(long id, String titulo) {
+        indice.aoAlterarAnime(new AnimeAlteradoEvent(id, titulo, null, null, null, Set.of(), null, null));
+    }
+
+    private List<Long> ids(String consulta) {
+        return indice.buscar(consulta, 10).stream().map(FuzzyTituloIndex.Correspondencia::animeId).toList();
+    }
+
+    @Test
+    void raioCresceComOTamanhoDaPalavra() {
+        assertThat(FuzzyTituloIndex.raio("no")).isZero();
+        assertThat(FuzzyTituloIndex.raio("nar")).isZero();
+        assertThat(FuzzyTituloIndex.raio("naru")).isEqualTo(1);
+        assertThat(FuzzyTituloIndex.raio("narut")).isEqualTo(1);
+        assertThat(FuzzyTituloIndex.raio("naruto")).isEqualTo(2);
+    }
+
+    @Test
+    void toleraErrosDeDigitacaoEmCadaPalavra() {
+        List<FuzzyTituloIndex.Correspondencia> resultado = indice.buscar("Shingeky no Kyojn", 10);
+
+        assertThat(resultado).containsExactly(new FuzzyTituloIndex.Correspondencia(1L, 2));
+        // Maiúsculas, acentos e pontuação não contam como edição
+        assertThat(indice.buscar("SHINGEKI-NO-KYŌJIN", 10)).containsExactly(new FuzzyTituloIndex.Correspondencia(1L, 0));
+    }
+
+    @Test
+    void palavrasCurtasPrecisamCasarExatamente() {
+        assertThat(ids("Shingeki na Kyojin")).isEmpty();
+        assertThat(ids("Kimi no Na wa")).containsExactly(5L);
+    }
+
+    @Test
+    void menosEdicoesEDepoisMenosPalavrasSobrandoVemPrimeiro() {
+        // "naruot" está a 2 edições de "naruto"; "Naruto" tem menos palavras sobrando que os outros dois
+        assertThat(ids("naruot")).containsExactly(2L, 3L, 4L);
+        assertThat(ids("naruto shipuden")).containsExactly(3L);
+        assertThat(indice.buscar("naruto", 1)).containsExactly(new FuzzyTituloIndex.Correspondencia(2L, 0));
+    }
+
+    @Test
+    void todaPalavraDaConsultaPrecisaCasar() {
+        assertThat(ids("naruto kyojin")).isEmpty();
+        assertThat(ids("")).isEmpty();
+        assertThat(indice.buscar("naruto", 0)).isEmpty();
+    }
+
+    @Test
+    void tituloAlteradoERemovidoSaemDoIndice() {
+        indexar(2, "Naruto Remastered");
+        indice.aoRemoverAnime(new AnimeRemovidoEvent(3L));
+
+        assertThat(ids("naruto")).containsExactly(2L, 4L);
+        assertThat(ids("remastred")).containsExactly(2L);
+        assertThat(ids("shippuden")).isEmpty();
+    }
+}
@@ -0,0 +1,147 @@
+package com.seusanimes.service;
+
+import com.seusanimes.BancoDeTeste;
+import com.seusanimes.dto.JikanAnime;
+import com.seusanimes.dto.LoteAnimesResponse;
+import com.seusanimes.model.Anime;
+import com.seusanimes.model.Categoria;
+import com.seusanimes.repository.AnimeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Gravação dos animes da Jikan (upsert por mal_id) no PostgreSQL embutido.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ImportacaoJikanTest {
+
+    @DynamicPropertySource
+    static void banco(DynamicPropertyRegistry registry) {
+        BancoDeTeste.registrar(registry);
+    }
+
+    @Autowired
+    private AnimeExternalService animeExternalService;
+    @Autowired
+    private AnimeService animeService;
+    @Autowired
+    private AnimeRepository animeRepository;
+    @Autowired
+    private JikanAnimeParser jikanAnimeParser;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void animeSemMalIdNaoEGravado() {
+        JikanAnime semMalId = new JikanAnime(null, "Importação Sem MAL", "Sinopse", 12, null, "Finished Airing",
+                LocalDate.of(2020, 4, 1), List.of("Importação Ação"));
+
+        assertThat(animeExternalService.salvarAnime(semMalId)).isEmpty();
+        assertThat(animeRepository.findByTitulo("Importação Sem MAL")).isEmpty();
+    }
+
+    @Test
+    void animeComMalIdEGravadoComAsCategorias() {
+        JikanAnime dados = new JikanAnime(9_100_001L, "Importação Com MAL", "Sinopse", 24, "https://img/1.jpg",
+                "Currently Airing", LocalDate.of(2021, 7, 10), List.of("Importação Ação", "importação ação", "Importação Drama"));
+
+        Optional<Anime> gravado = animeExternalService.salvarAnime(dados);
+
+        assertThat(gravado).isPresent();
+        assertThat(gravado.get().getMalId()).isEqualTo(9_100_001L);
+        assertThat(gravado.get().getAno()).isEqualTo(2021);
+        // Gêneros que diferem só em maiúsculas viram a mesma categoria
+        assertThat(gravado.get().getCategorias()).extracting(Categoria::getNome)
+                .containsExactlyInAnyOrder("Importação Ação", "Importação Drama");
+        // Um segundo upsert do mesmo mal_id atualiza a linha existente
+        Optional<Anime> atualizado = animeExternalService.salvarAnime(new JikanAnime(9_100_001L, "Importação Com MAL",
+                "Nova sinopse", 25, null, "Finished Airing", LocalDate.of(2021, 7, 10), List.of("Importação Drama")));
+        assertThat(atualizado.get().getId()).isEqualTo(gravado.get().getId());
+        assertThat(atualizado.get().getEpisodios()).isEqualTo(25);
+    }
+
+    @Test
+    void loteEImportacaoUsamOsMesmosBlocosDeIdsSemBuracos() {
+        // 120 animes atravessam mais de um bloco de 50: um nextval por linha deixaria 49 ids sem uso entre cada um
+        List<Anime> novos = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            Anime anime = new Anime();
+            anime.setTitulo("Ids Densos Lote " + i);
+            novos.add(anime);
+        }
+        LoteAnimesResponse lote = animeService.salvarEmLote(novos);
+
+        List<JikanAnime> importados = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            importados.add(new JikanAnime(9_200_000L + i, "Ids Densos Importação " + i, null, 12, null,
+                    "Finished Airing", null, List.of()));
+        }
+        Map<Long, Long> idsPorMalId = animeExternalService.salvarLote(importados);
+
+        long primeiro = lote.ids().get(0);
+        assertThat(lote.ids()).containsExactlyElementsOf(LongStream.range(primeiro, primeiro + 120).boxed().toList());
+        // A importação continua do ponto em que o lote parou, no bloco que ele deixou aberto
+        List<Long> idsImportados = importados.stream().map(anime -> idsPorMalId.get(anime.malId())).toList();
+        assertThat(idsImportados)
+                .containsExactlyElementsOf(LongStream.range(primeiro + 120, primeiro + 240).boxed().toList());
+    }
+
+    @Test
+    void paginaDaJikanEGravadaComTodosOsCampos() throws IOException {
+        List<JikanAnime> animes = jikanAnimeParser.parsePagina(JikanAnimeParserTest.paginaDaJikan()).animes();
+
+        Map<Long, Long> idsPorMalId = animeExternalService.salvarLote(animes);
+
+        assertThat(idsPorMalId).containsOnlyKeys(1L, 16498L, 59999L, 60001L);
+        Map<String, Object> bebop = linha(idsPorMalId.get(1L));
+        assertThat(bebop).containsEntry("mal_id", 1L)
+                .containsEntry("titulo", "Cowboy Bebop")
+                .containsEntry("episodios", 26)
+                .containsEntry("imagem_url", "https://cdn.myanimelist.net/images/anime/4/19644.jpg")
+                .containsEntry("status", "Finished Airing")
+                .containsEntry("ano_lancamento", Date.valueOf(LocalDate.of(1998, 4, 3)))
+                .containsEntry("ano", 1998)
+                .containsEntry("temporada", "PRIMAVERA");
+        assertThat((String) bebop.get("sinopse")).startsWith("Crime is timeless.").endsWith("[Written by MAL Rewrite]");
+        assertThat(categorias(idsPorMalId.get(1L))).containsExactly("Action", "Award Winning", "Sci-Fi");
+
+        // Sem data de estreia nem imagem: as colunas derivadas também ficam vazias
+        Map<String, Object> semEstreia = linha(idsPorMalId.get(59999L));
+        assertThat(semEstreia).containsEntry("titulo", "Projeto Sem Estreia").containsEntry("status", "Not yet aired");
+        assertThat(semEstreia).extractingByKeys("sinopse", "episodios", "imagem_url", "ano_lancamento", "ano", "temporada")
+                .containsOnlyNulls();
+        assertThat(categorias(idsPorMalId.get(59999L))).isEmpty();
+
+        Map<String, Object> semImagem = linha(idsPorMalId.get(60001L));
+        assertThat(semImagem).containsEntry("episodios", 1);
+        assertThat(semImagem).extractingByKeys("imagem_url", "ano_lancamento", "ano").containsOnlyNulls();
+        assertThat(categorias(idsPorMalId.get(60001L))).containsExactly("Comedy");
+    }
+
+    private Map<String, Object> linha(Long animeId) {
+        return jdbcTemplate.queryForMap("SELECT mal_id, titulo, sinopse, episodios, imagem_url, status, ano_lancamento, "
+                + "ano, temporada FROM animes WHERE id = ?", animeId);
+    }
+
+    private List<String> categorias(Long animeId) {
+        return jdbcTemplate.queryForList("SELECT c.nome FROM anime_categoria ac JOIN categorias c ON c.id = ac.categoria_id "
+                + "WHERE ac.anime_id = ? ORDER BY c.nome", String.class, animeId);
+    }
+}
@@ -0,0 +1,155 @@
+package com.seusanimes.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.seusanimes.Cronometro;
+import com.seusanimes.dto.JikanAnime;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Conversão de uma página de 25 animes da Jikan (o limite por página da API): o leitor em streaming
+ * (JikanAnimeParser) contra a árvore do Jackson (readTree) e contra o Map genérico que a importação usava antes.
+ * Mede a mediana do tempo e os bytes alocados por página. Fora do mvn test; roda com mvn test -Pbenchmark.
+ */
+@Tag("benchmark")
+class JikanAnimeParserBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(JikanAnimeParserBenchmarkTest.class);
+
+    private static final int ANIMES_POR_PAGINA = 25;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JikanAnimeParser parser = new JikanAnimeParser(objectMapper);
+
+    @Test
+    void streamingContraArvoreEMap() throws IOException {
+        byte[] pagina = paginaCheia();
+        Map<String, Supplier<List<JikanAnime>>> leitores = Map.of(
+                "streaming", () -> streaming(pagina),
+                "readTree", () -> arvore(pagina),
+                "Map", () -> mapa(pagina));
+
+        List<JikanAnime> esperado = streaming(pagina);
+        assertThat(esperado).hasSize(ANIMES_POR_PAGINA);
+        for (String nome : List.of("streaming", "readTree", "Map")) {
+            Supplier<List<JikanAnime>> leitor = leitores.get(nome);
+            // As três leituras precisam produzir exatamente os mesmos animes
+            assertThat(leitor.get()).as(nome).isEqualTo(esperado);
+
+            double mediana = Cronometro.medianaEmMs(2_000, 5_000, leitor::get);
+            long alocados = bytesAlocados(leitor);
+            logger.info("JikanAnimeParserBenchmarkTest: {} ({} bytes, {} animes): {} ms, {} KB alocados por página",
+                    nome, pagina.length, ANIMES_POR_PAGINA, String.format("%.3f", mediana), alocados / 1024);
+        }
+    }
+
+    private List<JikanAnime> streaming(byte[] pagina) {
+        try {
+            return parser.parsePagina(pagina).animes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<JikanAnime> arvore(byte[] pagina) {
+        JsonNode raiz;
+        try {
+            raiz = objectMapper.readTree(pagina);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        List<JikanAnime> animes = new ArrayList<>();
+        for (JsonNode anime : raiz.path("data")) {
+            List<String> generos = new ArrayList<>();
+            for (JsonNode genero : anime.path("genres")) {
+                String nome = genero.path("name").textValue();
+                if (nome != null && !nome.isEmpty()) {
+                    generos.add(nome);
+                }
+            }
+            animes.add(new JikanAnime(
+                    anime.path("mal_id").isIntegralNumber() ? anime.path("mal_id").longValue() : null,
+                    anime.path("title").textValue(),
+                    anime.path("synopsis").textValue(),
+                    anime.path("episodes").isIntegralNumber() ? anime.path("episodes").intValue() : null,
+                    anime.path("images").path("jpg").path("image_url").textValue(),
+                    anime.path("status").textValue(),
+                    JikanAnimeParser.parseDataLancamento(anime.path("aired").path("from").textValue()),
+                    generos));
+        }
+        return animes;
+    }
+
+    // Como a importação lia antes: o JSON inteiro em Map/List e casts em cada campo
+    @SuppressWarnings("unchecked")
+    private List<JikanAnime> mapa(byte[] pagina) {
+        Map<String, Object> resposta;
+        try {
+            resposta = objectMapper.readValue(pagina, Map.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        List<JikanAnime> animes = new ArrayList<>();
+        for (Map<String, Object> anime : (List<Map<String, Object>>) resposta.get("data")) {
+            String imagemUrl = null;
+            if (anime.get("images") instanceof Map<?, ?> imagens && imagens.get("jpg") instanceof Map<?, ?> jpg) {
+                imagemUrl = (String) jpg.get("image_url");
+            }
+            String estreia = anime.get("aired") instanceof Map<?, ?> aired ? (String) aired.get("from") : null;
+            List<String> generos = new ArrayList<>();
+            if (anime.get("genres") instanceof List<?> lista) {
+                for (Object genero : lista) {
+                    String nome = (String) ((Map<String, Object>) genero).get("name");
+                    if (nome != null && !nome.isEmpty()) {
+                        generos.add(nome);
+                    }
+                }
+            }
+            Number malId = (Number) anime.get("mal_id");
+            Number episodios = (Number) anime.get("episodes");
+            animes.add(new JikanAnime(malId != null ? malId.longValue() : null, (String) anime.get("title"),
+                    (String) anime.get("synopsis"), episodios != null ? episodios.intValue() : null, imagemUrl,
+                    (String) anime.get("status"), JikanAnimeParser.parseDataLancamento(estreia), generos));
+        }
+        return animes;
+    }
+
+    // Repete os animes da página de exemplo (com mal_id diferentes) até o tamanho de uma página real
+    private byte[] paginaCheia() throws IOException {
+        ObjectNode raiz = (ObjectNode) objectMapper.readTree(JikanAnimeParserTest.paginaDaJikan());
+        ArrayNode exemplos = (ArrayNode) raiz.get("data");
+        ArrayNode animes = objectMapper.createArrayNode();
+        for (int i = 0; i < ANIMES_POR_PAGINA; i++) {
+            ObjectNode anime = exemplos.get(i % exemplos.size()).deepCopy();
+            anime.put("mal_id", 100_000 + i);
+            animes.add(anime);
+        }
+        raiz.set("data", animes);
+        return objectMapper.writeValueAsBytes(raiz);
+    }
+
+    private static long bytesAlocados(Supplier<List<JikanAnime>> leitor) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        int repeticoes = 1_000;
+        long antes = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < repeticoes; i++) {
+            leitor.get();
+        }
+        return (threads.getCurrentThreadAllocatedBytes() - antes) / repeticoes;
+    }
+}
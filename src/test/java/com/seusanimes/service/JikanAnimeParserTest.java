@@ -0,0 +1,112 @@
+package com.seusanimes.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seusanimes.dto.JikanAnime;
+import com.seusanimes.dto.JikanPagina;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JikanAnimeParserTest {
+
+    private final JikanAnimeParser parser = new JikanAnimeParser(new ObjectMapper());
+
+    // Página de /v4/anime com todos os campos que a Jikan envia, incluindo um anime sem estreia (aired.from nulo,
+    // sem images) e um especial com images nulo e sem aired
+    static byte[] paginaDaJikan() {
+        try (InputStream entrada = JikanAnimeParserTest.class.getResourceAsStream("/jikan/anime-pagina.json")) {
+            return entrada.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Test
+    void leTodosOsCamposPersistidos() throws IOException {
+        JikanPagina pagina = parser.parsePagina(paginaDaJikan());
+
+        assertThat(pagina.temProximaPagina()).isTrue();
+        assertThat(pagina.animes()).extracting(JikanAnime::malId).containsExactly(1L, 16498L, 59999L, 60001L);
+
+        JikanAnime bebop = pagina.animes().get(0);
+        assertThat(bebop.titulo()).isEqualTo("Cowboy Bebop");
+        assertThat(bebop.sinopse())
+                .startsWith("Crime is timeless. By the year 2071,")
+                .contains("\n\nSpike Spiegel", "\"Bounty hunters\", or \"Cowboys\"")
+                .endsWith("[Written by MAL Rewrite]");
+        assertThat(bebop.episodios()).isEqualTo(26);
+        // A imagem é a jpg.image_url, não a webp nem a do trailer
+        assertThat(bebop.imagemUrl()).isEqualTo("https://cdn.myanimelist.net/images/anime/4/19644.jpg");
+        assertThat(bebop.status()).isEqualTo("Finished Airing");
+        assertThat(bebop.dataLancamento()).isEqualTo(LocalDate.of(1998, 4, 3));
+        // Só genres: themes, demographics, studios e producers também têm "name", mas não são categorias
+        assertThat(bebop.generos()).containsExactly("Action", "Award Winning", "Sci-Fi");
+
+        JikanAnime kyojin = pagina.animes().get(1);
+        assertThat(kyojin.titulo()).isEqualTo("Shingeki no Kyojin");
+        assertThat(kyojin.sinopse()).contains("Titans — \"進撃\" —");
+        assertThat(kyojin.imagemUrl()).isEqualTo("https://cdn.myanimelist.net/images/anime/10/47347.jpg");
+        assertThat(kyojin.dataLancamento()).isEqualTo(LocalDate.of(2013, 4, 7));
+        assertThat(kyojin.generos()).containsExactly("Action", "Award Winning", "Drama", "Suspense");
+    }
+
+    @Test
+    void camposAusentesOuNulosViramNulo() throws IOException {
+        List<JikanAnime> animes = parser.parsePagina(paginaDaJikan()).animes();
+
+        assertThat(animes.get(2)).isEqualTo(new JikanAnime(59999L, "Projeto Sem Estreia", null, null, null,
+                "Not yet aired", null, List.of()));
+        // images nulo, sem aired, sinopse vazia e um gênero sem nome
+        assertThat(animes.get(3)).isEqualTo(new JikanAnime(60001L, "Especial Sem Imagem", "", 1, null,
+                "Finished Airing", null, List.of("Comedy")));
+    }
+
+    @Test
+    void paginacaoLidaSemPercorrerOsAnimes() throws IOException {
+        assertThat(parser.temProximaPagina(paginaDaJikan())).isTrue();
+
+        byte[] ultima = """
+                {"data": [{"mal_id": 5, "title": "X"}], "pagination": {"has_next_page": false, "current_page": 2}}
+                """.getBytes(StandardCharsets.UTF_8);
+        assertThat(parser.temProximaPagina(ultima)).isFalse();
+        assertThat(parser.parsePagina(ultima).temProximaPagina()).isFalse();
+        assertThat(parser.temProximaPagina("{\"data\": []}".getBytes(StandardCharsets.UTF_8))).isFalse();
+    }
+
+    @Test
+    void tiposInesperadosNaoQuebramALeitura() throws IOException {
+        byte[] estranho = """
+                {"data": [7, {"mal_id": "10", "title": ["a"], "episodes": 12.5, "images": [], "aired": "1999",
+                  "genres": {"name": "Action"}, "extra": {"title": "não é este"}}, null]}
+                """.getBytes(StandardCharsets.UTF_8);
+
+        assertThat(parser.parsePagina(estranho).animes())
+                .containsExactly(new JikanAnime(null, null, null, null, null, null, null, List.of()));
+    }
+
+    @Test
+    void respostaVaziaOuQueNaoEObjeto() throws IOException {
+        assertThat(parser.parsePagina(new byte[0])).isEqualTo(new JikanPagina(List.of(), false));
+        assertThat(parser.parsePagina(null).animes()).isEmpty();
+        assertThatThrownBy(() -> parser.parsePagina("[]".getBytes(StandardCharsets.UTF_8)))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void dataDeLancamentoEmIsoOuTextoTerminadoNoAno() {
+        assertThat(JikanAnimeParser.parseDataLancamento("2013-04-07T00:00:00+00:00")).isEqualTo(LocalDate.of(2013, 4, 7));
+        assertThat(JikanAnimeParser.parseDataLancamento("Apr 2013")).isEqualTo(LocalDate.of(2013, 1, 1));
+        assertThat(JikanAnimeParser.parseDataLancamento("2013")).isEqualTo(LocalDate.of(2013, 1, 1));
+        assertThat(JikanAnimeParser.parseDataLancamento("Not available")).isNull();
+        assertThat(JikanAnimeParser.parseDataLancamento("")).isNull();
+        assertThat(JikanAnimeParser.parseDataLancamento(null)).isNull();
+    }
+}
@@ -0,0 +1,68 @@
+package com.seusanimes.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    @Test
+    void chavesSobrevivemAIdaEVolta() {
+        String cursor = KeysetCursor.codificar("titulo", "Shingeki no Kyōjin: 進撃の巨人 / 100%_\\");
+
+        assertThat(KeysetCursor.decodificar(cursor, "titulo", 1).texto(0)).isEqualTo("Shingeki no Kyōjin: 進撃の巨人 / 100%_\\");
+
+        KeysetCursor porPopularidade = KeysetCursor.decodificar(
+                KeysetCursor.codificar("popularidade", 42L, Long.MAX_VALUE), "popularidade", 2);
+        assertThat(porPopularidade.numero(0)).isEqualTo(42L);
+        assertThat(porPopularidade.numero(1)).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void cursorEOpacoESeguroEmUrl() {
+        String cursor = KeysetCursor.codificar("titulo", "a?b&c=d/e+f");
+
+        assertThat(cursor).matches("[A-Za-z0-9_-]+").doesNotContain("titulo");
+    }
+
+    @Test
+    void chaveVaziaEDiferenteDeChaveAusente() {
+        String cursor = KeysetCursor.codificar("titulo", "");
+
+        assertThat(KeysetCursor.decodificar(cursor, "titulo", 1).texto(0)).isEmpty();
+        assertThatThrownBy(() -> KeysetCursor.decodificar(KeysetCursor.codificar("titulo"), "titulo", 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void cursorDeOutraOrdenacaoOuComOutraQuantidadeDeChavesERecusado() {
+        String cursor = KeysetCursor.codificar("id", 10L);
+
+        assertThatThrownBy(() -> KeysetCursor.decodificar(cursor, "titulo", 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("titulo");
+        assertThatThrownBy(() -> KeysetCursor.decodificar(cursor, "id", 2))
+                .isInstanceOf(IllegalArgumentException.class);
+        // Um separador dentro da chave de texto não pode criar uma chave a mais
+        assertThatThrownBy(() -> KeysetCursor.decodificar(KeysetCursor.codificar("id", "10\u001F11"), "id", 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void cursorAdulteradoERecusadoComIllegalArgumentException() {
+        assertThatThrownBy(() -> KeysetCursor.decodificar("não é base64!", "id", 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cursor inválido.");
+
+        String adulterado = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("id\u001F10 OR 1=1".getBytes(StandardCharsets.UTF_8));
+        KeysetCursor cursor = KeysetCursor.decodificar(adulterado, "id", 1);
+        assertThatThrownBy(() -> cursor.numero(0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cursor inválido.");
+    }
+}
@@ -0,0 +1,112 @@
+package com.seusanimes.service;
+
+import com.seusanimes.BancoDeTeste;
+import com.seusanimes.dto.CursorPage;
+import com.seusanimes.model.Anime;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Paginação por keyset do catálogo (AnimeService.listarPorCursor) no PostgreSQL embutido:
+ * percorrer todas as fatias devolve o catálogo inteiro, na ordem do banco, sem repetir nem pular títulos.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PaginacaoPorCursorTest {
+
+    @DynamicPropertySource
+    static void banco(DynamicPropertyRegistry registry) {
+        BancoDeTeste.registrar(registry);
+    }
+
+    @Autowired
+    private AnimeService animeService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void popularCatalogo() {
+        // Títulos que só diferem em maiúsculas, acentos e pontuação, onde a ordem do banco importa
+        for (String titulo : List.of("Cursor Beta", "cursor beta!", "Cursor Alfa", "Cursor Álfa", "Cursor Gama",
+                "Cursor Delta", "Cursor Épsilon", "Cursor Zeta 2", "Cursor Zeta 10")) {
+            Anime anime = new Anime();
+            anime.setTitulo(titulo);
+            animeService.save(anime);
+        }
+    }
+
+    @Test
+    void fatiasPorTituloCobremOCatalogoNaOrdemDoBanco() {
+        assertThat(percorrer("titulo", 4))
+                .isEqualTo(jdbcTemplate.queryForList("SELECT titulo FROM animes ORDER BY titulo", String.class));
+    }
+
+    @Test
+    void fatiasPorIdCobremOCatalogoNaOrdemDoBanco() {
+        assertThat(percorrer("id", 4))
+                .isEqualTo(jdbcTemplate.queryForList("SELECT titulo FROM animes ORDER BY id", String.class));
+    }
+
+    @Test
+    void cursorDeOutraOrdenacaoERecusado() {
+        String cursorPorId = animeService.listarPorCursor(null, 1, "id").proximoCursor();
+
+        assertThatThrownBy(() -> animeService.listarPorCursor(cursorPorId, 1, "titulo"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void proximaFatiaPorTituloUsaOIndiceUnicoDoTitulo() {
+        // Com poucas linhas o planejador prefere ler a tabela inteira (ou o bitmap e ordenar depois):
+        // desligando as duas opções, sobra o que um range scan no índice consegue atender
+        List<String> plano = jdbcTemplate.execute((ConnectionCallback<List<String>>) conexao -> {
+            List<String> linhas = new ArrayList<>();
+            try (Statement comando = conexao.createStatement()) {
+                comando.execute("SET enable_seqscan = off");
+                comando.execute("SET enable_bitmapscan = off");
+                try (ResultSet resultado = comando.executeQuery(
+                        "EXPLAIN SELECT * FROM animes WHERE titulo > 'Cursor' ORDER BY titulo LIMIT 21")) {
+                    while (resultado.next()) {
+                        linhas.add(resultado.getString(1));
+                    }
+                }
+                comando.execute("RESET enable_seqscan");
+                comando.execute("RESET enable_bitmapscan");
+            }
+            return linhas;
+        });
+
+        assertThat(String.join("\n", plano)).contains("Index Scan").doesNotContain("Sort");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_indexes WHERE indexname = 'idx_animes_titulo_id'", Integer.class)).isZero();
+    }
+
+    private List<String> percorrer(String ordem, int tamanho) {
+        List<String> titulos = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<Anime> fatia = animeService.listarPorCursor(cursor, tamanho, ordem);
+            fatia.itens().forEach(anime -> titulos.add(anime.getTitulo()));
+            assertThat(fatia.temMais()).isEqualTo(fatia.proximoCursor() != null);
+            cursor = fatia.proximoCursor();
+        } while (cursor != null);
+        return titulos;
+    }
+}